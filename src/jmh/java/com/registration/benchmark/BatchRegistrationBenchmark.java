@@ -0,0 +1,64 @@
+package com.registration.benchmark;
+
+import com.registration.dto.UserRegistrationDTO;
+import com.registration.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch registration versus the same number of single registerUser calls
+ * Hashing runs at minimum BCrypt cost so the difference in database round trips is visible
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchRegistrationBenchmark {
+
+    @Param({"100", "500"})
+    private int users;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startApplication("batch_registration", true);
+        userService = context.getBean(UserService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int batchRegistration() {
+        return userService.registerUsers(nextRegistrations()).getCreated();
+    }
+
+    @Benchmark
+    public int singleRegistrations() {
+        int created = 0;
+        for (UserRegistrationDTO registration : nextRegistrations()) {
+            userService.registerUser(registration);
+            created++;
+        }
+        return created;
+    }
+
+    private List<UserRegistrationDTO> nextRegistrations() {
+        List<UserRegistrationDTO> registrations = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            registrations.add(BenchmarkSupport.registration(Long.toString(sequence++)));
+        }
+        return registrations;
+    }
+}
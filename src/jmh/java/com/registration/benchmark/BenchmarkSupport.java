@@ -0,0 +1,72 @@
+package com.registration.benchmark;
+
+import com.registration.RegistrationApplication;
+import com.registration.dto.UserRegistrationDTO;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared fixtures for the JMH benchmarks
+ * Starts the application without a web server against a private embedded H2 database
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Start the application context on an in-memory H2 database
+     * @param databaseName Name of the H2 database, unique per benchmark
+     * @param fastHashing Whether to use the minimum BCrypt cost so hashing does not dominate,
+     *                    instead of the default cost of 10 (calibration is skipped either way)
+     * @param extraArgs Additional command line arguments, e.g. "--registration.cache.enabled=false"
+     * @return Running application context
+     */
+    static ConfigurableApplicationContext startApplication(String databaseName, boolean fastHashing,
+                                                           String... extraArgs) {
+        // Passed as command line arguments so they override the profile's SQL and debug logging
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--registration.password.bcrypt.strength=" + (fastHashing ? 4 : 10),
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--spring.jpa.properties.hibernate.use_sql_comments=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.registration=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"));
+        args.addAll(List.of(extraArgs));
+        return new SpringApplicationBuilder(RegistrationApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("dev")
+                .logStartupInfo(false)
+                .run(args.toArray(String[]::new));
+    }
+
+    /**
+     * Build a valid registration whose email and username are unique per suffix
+     * @param suffix Unique alphanumeric suffix
+     * @return Registration DTO
+     */
+    static UserRegistrationDTO registration(String suffix) {
+        return UserRegistrationDTO.builder()
+                .firstName("Bench")
+                .lastName("User")
+                .username("bench_" + suffix)
+                .email("bench_" + suffix + "@bench.example.com")
+                .password("password123")
+                .confirmPassword("password123")
+                .phoneNumber("9876543210")
+                .dateOfBirth(LocalDate.of(1990, 1, 15))
+                .gender("Other")
+                .city("Pune")
+                .postalCode("411001")
+                .country("India")
+                .build();
+    }
+}
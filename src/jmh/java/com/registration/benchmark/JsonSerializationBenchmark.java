@@ -0,0 +1,54 @@
+package com.registration.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.registration.dto.UserResponseDTO;
+import com.registration.entity.User;
+import com.registration.mapper.UserMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of user lists as returned by the list endpoints
+ * Uses an ObjectMapper configured the way Spring Boot configures the application's
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"1", "50", "500"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<UserResponseDTO> users;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        UserMapper userMapper = new UserMapper();
+        users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            User user = userMapper.toEntity(BenchmarkSupport.registration(Integer.toString(i)));
+            user.setUserId((long) i + 1);
+            user.setIsActive(true);
+            user.setEmailVerified(false);
+            user.setCreatedAt(LocalDateTime.of(2024, 1, 1, 12, 0).plusSeconds(i));
+            user.setUpdatedAt(user.getCreatedAt());
+            users.add(userMapper.toResponse(user));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(users);
+    }
+}
@@ -0,0 +1,47 @@
+package com.registration.benchmark;
+
+import com.registration.util.TrigramIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trigram index search latency as the number of indexed users grows
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchIndexBenchmark {
+
+    private static final String[] FIRST_NAMES = {"John", "Jane", "Priya", "Rahul", "Maria", "Wei", "Olga", "Ahmed"};
+    private static final String[] LAST_NAMES = {"Doe", "Smith", "Sharma", "Garcia", "Chen", "Ivanova", "Khan", "Brown"};
+
+    @Param({"10000", "100000"})
+    private int users;
+
+    @Param({"sharma", "ra", "user_4242", "priya kh"})
+    private String term;
+
+    private TrigramIndex index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        index = new TrigramIndex(4);
+        for (int i = 0; i < users; i++) {
+            String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            index.put(i + 1, first, last, "user_" + i, first.toLowerCase() + "." + last.toLowerCase() + i + "@example.com");
+        }
+    }
+
+    @Benchmark
+    public List<Long> search() {
+        return index.search(term, 20);
+    }
+}
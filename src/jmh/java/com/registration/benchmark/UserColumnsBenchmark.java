@@ -0,0 +1,106 @@
+package com.registration.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.registration.codec.UserColumnsReader;
+import com.registration.codec.UserColumnsWriter;
+import com.registration.dto.UserResponseDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binary user columns format versus Jackson JSON for bulk user transfer
+ * Encodes and decodes whole lists; payload sizes are printed once per trial
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserColumnsBenchmark {
+
+    private static final String[] CITIES = {"Pune", "Mumbai", "Delhi", "Chennai", "Kolkata", "Bengaluru"};
+    private static final String[] STATES = {"MH", "MH", "DL", "TN", "WB", "KA"};
+    private static final String[] GENDERS = {"Male", "Female", "Other"};
+
+    private static final TypeReference<List<UserResponseDTO>> USER_LIST = new TypeReference<>() {
+    };
+
+    @Param({"50", "500", "5000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<UserResponseDTO> users;
+    private byte[] json;
+    private byte[] columns;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        users = new ArrayList<>(size);
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 12, 0, 0, 123_456_000);
+        for (int i = 0; i < size; i++) {
+            int city = i % CITIES.length;
+            users.add(UserResponseDTO.builder()
+                    .userId(1000L + i)
+                    .firstName("First" + i)
+                    .lastName("Last" + (i * 7919 % size))
+                    .username("user_" + i)
+                    .email("user_" + i + "@example.com")
+                    .phoneNumber(Long.toString(9_000_000_000L + i * 37L))
+                    .dateOfBirth(LocalDate.of(1960, 1, 1).plusDays(i * 97L % 15_000))
+                    .gender(GENDERS[i % GENDERS.length])
+                    .address(i % 3 == 0 ? null : i + " Main Street")
+                    .city(CITIES[city])
+                    .state(STATES[city])
+                    .postalCode(Integer.toString(400_000 + i % 900))
+                    .country("India")
+                    .isActive(i % 10 != 0)
+                    .emailVerified(i % 4 == 0)
+                    .createdAt(createdAt.plusSeconds(i * 61L))
+                    .updatedAt(createdAt.plusSeconds(i * 61L + i % 5))
+                    .build());
+        }
+        json = encodeJson();
+        columns = encodeColumns();
+        if (!users.equals(decodeColumns()) || !users.equals(decodeJson())) {
+            throw new IllegalStateException("Round trip changed the users");
+        }
+        System.out.printf("%n%d users: JSON %d bytes, columns %d bytes (%.1f%%)%n",
+                size, json.length, columns.length, 100.0 * columns.length / json.length);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws IOException {
+        return objectMapper.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public byte[] encodeColumns() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json == null ? 8192 : json.length / 2);
+        UserColumnsWriter writer = new UserColumnsWriter(out);
+        writer.writeAll(users);
+        writer.finish();
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public List<UserResponseDTO> decodeJson() throws IOException {
+        return objectMapper.readValue(json, USER_LIST);
+    }
+
+    @Benchmark
+    public List<UserResponseDTO> decodeColumns() throws IOException {
+        return new UserColumnsReader(new ByteArrayInputStream(columns)).readAll();
+    }
+}
@@ -0,0 +1,77 @@
+package com.registration.benchmark;
+
+import com.registration.dto.UserResponseDTO;
+import com.registration.entity.User;
+import com.registration.mapper.UserMapper;
+import com.registration.repository.UserRepository;
+import com.registration.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * registerUser and getUserById through the full service stack on embedded H2
+ * Registration runs at the default BCrypt cost of 10, so it is dominated by hashing;
+ * lookups are measured with the user cache on and off.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    private static final int PRELOADED_USERS = 1000;
+
+    @Param({"true", "false"})
+    private boolean cacheEnabled;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private long[] userIds;
+    private long sequence;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startApplication("user_service_" + cacheEnabled, false,
+                "--registration.cache.enabled=" + cacheEnabled);
+        userService = context.getBean(UserService.class);
+
+        // Preload through the repository with one shared hash so setup does not spend minutes in BCrypt
+        UserMapper userMapper = context.getBean(UserMapper.class);
+        String hash = context.getBean(PasswordEncoder.class).encode("password123");
+        List<User> users = new ArrayList<>(PRELOADED_USERS);
+        for (int i = 0; i < PRELOADED_USERS; i++) {
+            User user = userMapper.toEntity(BenchmarkSupport.registration("preload_" + i));
+            user.setPassword(hash);
+            users.add(user);
+        }
+        userIds = context.getBean(UserRepository.class).saveAll(users).stream()
+                .mapToLong(User::getUserId)
+                .toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public UserResponseDTO registerUser() {
+        return userService.registerUser(BenchmarkSupport.registration(Long.toString(sequence++)));
+    }
+
+    @Benchmark
+    public Optional<UserResponseDTO> getUserById() {
+        next = (next + 1) % userIds.length;
+        return userService.getUserById(userIds[next]);
+    }
+}
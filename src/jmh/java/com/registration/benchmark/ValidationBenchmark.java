@@ -0,0 +1,130 @@
+package com.registration.benchmark;
+
+import com.registration.dto.UserRegistrationDTO;
+import com.registration.entity.User;
+import com.registration.mapper.UserMapper;
+import com.registration.validation.UserRegistrationValidator;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Validation of a registration, for a valid form and one that fails several constraints
+ * Compares Bean Validation with the hand-written UserRegistrationValidator, directly and as
+ * the MVC validator filling a BindingResult, and measures the persist-time entity check
+ * that the trusted path skips. Setup fails if the two validators disagree on any field error.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private SpringValidatorAdapter beanMvcValidator;
+    private UserRegistrationValidator fastValidator;
+    private UserRegistrationDTO valid;
+    private UserRegistrationDTO invalid;
+    private User entity;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        beanMvcValidator = new SpringValidatorAdapter(validator);
+        fastValidator = new UserRegistrationValidator(validator, true);
+        valid = BenchmarkSupport.registration("validation");
+        invalid = BenchmarkSupport.registration("validation");
+        invalid.setUsername("x!");
+        invalid.setEmail("not-an-email");
+        invalid.setPhoneNumber("123");
+        invalid.setConfirmPassword("different");
+        entity = new UserMapper().toEntity(valid);
+        entity.setPassword("$2a$10$" + "x".repeat(53));
+
+        UserRegistrationDTO empty = new UserRegistrationDTO();
+        empty.setUsername("");
+        empty.setEmail(" ");
+        empty.setPostalCode("12345a");
+        empty.setCity("c".repeat(51));
+        for (UserRegistrationDTO dto : new UserRegistrationDTO[] {valid, invalid, empty}) {
+            Set<String> expected = fieldErrors(beanMvcValidator, dto);
+            Set<String> actual = fieldErrors(fastValidator, dto);
+            if (!expected.equals(actual)) {
+                throw new IllegalStateException("Validators disagree: " + expected + " versus " + actual);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<UserRegistrationDTO>> validRegistration() {
+        return validator.validate(valid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<UserRegistrationDTO>> invalidRegistration() {
+        return validator.validate(invalid);
+    }
+
+    @Benchmark
+    public Map<String, String> fastValidRegistration() {
+        return fastValidator.validateFields(valid);
+    }
+
+    @Benchmark
+    public Map<String, String> fastInvalidRegistration() {
+        return fastValidator.validateFields(invalid);
+    }
+
+    @Benchmark
+    public BeanPropertyBindingResult mvcInvalidRegistration() {
+        BeanPropertyBindingResult errors = new BeanPropertyBindingResult(invalid, "userRegistrationDTO");
+        beanMvcValidator.validate(invalid, errors);
+        return errors;
+    }
+
+    @Benchmark
+    public BeanPropertyBindingResult fastMvcInvalidRegistration() {
+        BeanPropertyBindingResult errors = new BeanPropertyBindingResult(invalid, "userRegistrationDTO");
+        fastValidator.validate(invalid, errors);
+        return errors;
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<User>> entityValidation() {
+        return validator.validate(entity);
+    }
+
+    private static Set<String> fieldErrors(org.springframework.validation.Validator mvcValidator,
+                                           UserRegistrationDTO dto) {
+        BeanPropertyBindingResult errors = new BeanPropertyBindingResult(dto, "userRegistrationDTO");
+        mvcValidator.validate(dto, errors);
+        return errors.getFieldErrors().stream()
+                .map(error -> error.getField() + ":" + error.getCode() + ":" + error.getDefaultMessage()
+                        + ":" + String.join(",", codes(error)))
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    private static String[] codes(FieldError error) {
+        return error.getCodes() == null ? new String[0] : error.getCodes();
+    }
+}
@@ -2,10 +2,6 @@ package com.registration;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.Bean;
-import org.modelmapper.ModelMapper;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 /**
  * Main Spring Boot Application Class
@@ -30,23 +26,4 @@ public class RegistrationApplication {
                 "  API Docs: http://localhost:8080/api/users\n" +
                 "========================================\n");
     }
-
-    /**
-     * ModelMapper Bean for DTO to Entity mapping
-     * @return ModelMapper instance
-     */
-    @Bean
-    public ModelMapper modelMapper() {
-        return new ModelMapper();
-    }
-
-    /**
-     * PasswordEncoder Bean for password encryption
-     * Uses BCrypt hashing algorithm
-     * @return PasswordEncoder instance
-     */
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
 }
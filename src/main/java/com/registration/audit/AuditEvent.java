@@ -0,0 +1,36 @@
+package com.registration.audit;
+
+import com.registration.event.UserChangedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Instant;
+
+/**
+ * One entry of the audit log
+ * The offset is the event's position in the log: offsets start at 0 and increase by
+ * one per event, across segment rotations
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class AuditEvent {
+
+    private final long offset;
+    private final Instant timestamp;
+    private final UserChangedEvent.ChangeType type;
+    private final Long userId;
+
+    /** Email after the change (null for deletions) */
+    private final String email;
+
+    /** Username after the change (null for deletions) */
+    private final String username;
+
+    /** Email before the change (null for registrations) */
+    private final String previousEmail;
+
+    /** Username before the change (null for registrations) */
+    private final String previousUsername;
+}
@@ -0,0 +1,362 @@
+package com.registration.audit;
+
+import com.registration.event.UserChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only audit log stored as memory-mapped segment files
+ *
+ * Each segment is named after the offset of its first event and holds a small header
+ * followed by length-prefixed, checksummed records. When a record no longer fits, the
+ * segment is flushed and a new one is started; the oldest segments beyond the retention
+ * count are deleted. On open, the newest segment is verified record by record and a torn
+ * tail left by a crash is discarded.
+ *
+ * Appends must come from a single thread. Reads are safe from any thread at any time and
+ * see every event appended before the read started.
+ */
+@Slf4j
+public class AuditLog implements Closeable {
+
+    private static final String SEGMENT_SUFFIX = ".audit";
+    private static final int MAGIC = 0x41554431;
+    private static final int VERSION = 1;
+    private static final int SEGMENT_HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int MAX_STRING_BYTES = 1024;
+    private static final int MAX_PAYLOAD_SIZE = 8 + 1 + 8 + 4 * (2 + MAX_STRING_BYTES);
+    private static final int MIN_SEGMENT_SIZE = 64 * 1024;
+
+    /** Records between entries of a segment's sparse offset index */
+    private static final int INDEX_INTERVAL = 1024;
+
+    private static final UserChangedEvent.ChangeType[] TYPES = UserChangedEvent.ChangeType.values();
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int retainedSegments;
+    private final ConcurrentNavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final byte[] scratch = new byte[MAX_PAYLOAD_SIZE];
+    private final CRC32C checksum = new CRC32C();
+
+    private Segment active;
+    private volatile long nextOffset;
+    private boolean dirty;
+
+    /**
+     * Open the log in a directory, recovering any existing segments
+     * @param directory Directory holding the segment files (created if missing)
+     * @param segmentSize Size of each segment file in bytes
+     * @param retainedSegments Number of segments to keep, or 0 to keep all
+     */
+    public AuditLog(Path directory, int segmentSize, int retainedSegments) throws IOException {
+        if (segmentSize < MIN_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("Segment size must be at least " + MIN_SEGMENT_SIZE + " bytes");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.retainedSegments = Math.max(0, retainedSegments);
+
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+        }
+        for (int i = 0; i < files.size(); i++) {
+            boolean newest = i == files.size() - 1;
+            Segment segment = Segment.open(files.get(i), newest);
+            segments.put(segment.baseOffset, segment);
+        }
+
+        if (segments.isEmpty()) {
+            active = Segment.create(segmentPath(0), 0, segmentSize);
+            segments.put(0L, active);
+        } else {
+            active = segments.lastEntry().getValue();
+        }
+        nextOffset = active.baseOffset + active.count;
+        log.info("Audit log opened in {}: {} segments, next offset {}", directory, segments.size(), nextOffset);
+    }
+
+    /**
+     * Append a user change; must only be called from the writer thread
+     * @param timestamp When the change was committed
+     * @param event The change
+     * @return Offset of the appended event
+     */
+    public long append(Instant timestamp, UserChangedEvent event) throws IOException {
+        int length = encode(timestamp, event);
+        checksum.reset();
+        checksum.update(scratch, 0, length);
+
+        if (active.end + RECORD_HEADER_SIZE + length > active.buffer.capacity()) {
+            roll();
+        }
+        long offset = nextOffset;
+        active.append(scratch, length, (int) checksum.getValue());
+        nextOffset = offset + 1;
+        dirty = true;
+        return offset;
+    }
+
+    /**
+     * Force appended events to disk
+     */
+    public void flush() {
+        if (dirty) {
+            active.buffer.force();
+            dirty = false;
+        }
+    }
+
+    /**
+     * Read events in offset order
+     * @param fromOffset First offset to return; offsets already deleted by retention are skipped
+     * @param maxEvents Maximum number of events to return
+     * @return Events starting at fromOffset, or fewer (possibly none) at the end of the log
+     */
+    public List<AuditEvent> read(long fromOffset, int maxEvents) {
+        List<AuditEvent> events = new ArrayList<>(Math.min(maxEvents, INDEX_INTERVAL));
+        Map.Entry<Long, Segment> entry = segments.floorEntry(fromOffset);
+        if (entry == null) {
+            entry = segments.firstEntry();
+        }
+        while (entry != null && events.size() < maxEvents) {
+            entry.getValue().read(Math.max(fromOffset, entry.getKey()), maxEvents, events);
+            entry = segments.higherEntry(entry.getKey());
+        }
+        return events;
+    }
+
+    /**
+     * @return Offset the next appended event will get
+     */
+    public long nextOffset() {
+        return nextOffset;
+    }
+
+    /**
+     * @return Offset of the oldest retained event
+     */
+    public long firstOffset() {
+        return segments.firstKey();
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+
+    private void roll() throws IOException {
+        flush();
+        Segment next = Segment.create(segmentPath(nextOffset), nextOffset, segmentSize);
+        segments.put(next.baseOffset, next);
+        active = next;
+        log.info("Audit log rolled to segment {}", next.path.getFileName());
+
+        while (retainedSegments > 0 && segments.size() > retainedSegments) {
+            Segment oldest = segments.pollFirstEntry().getValue();
+            Files.deleteIfExists(oldest.path);
+            log.info("Audit log deleted segment {}", oldest.path.getFileName());
+        }
+    }
+
+    private Path segmentPath(long baseOffset) {
+        return directory.resolve(String.format("%020d%s", baseOffset, SEGMENT_SUFFIX));
+    }
+
+    private int encode(Instant timestamp, UserChangedEvent event) {
+        ByteBuffer out = ByteBuffer.wrap(scratch);
+        out.putLong(timestamp.toEpochMilli());
+        out.put((byte) event.getType().ordinal());
+        out.putLong(event.getUserId() != null ? event.getUserId() : -1L);
+        putString(out, event.getUser() != null ? event.getUser().getEmail() : null);
+        putString(out, event.getUser() != null ? event.getUser().getUsername() : null);
+        putString(out, event.getPreviousEmail());
+        putString(out, event.getPreviousUsername());
+        return out.position();
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        if (value == null) {
+            out.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, MAX_STRING_BYTES);
+        out.putShort((short) length);
+        out.put(bytes, 0, length);
+    }
+
+    private static AuditEvent decode(long offset, ByteBuffer in) {
+        Instant timestamp = Instant.ofEpochMilli(in.getLong());
+        UserChangedEvent.ChangeType type = TYPES[in.get()];
+        long userId = in.getLong();
+        return new AuditEvent(offset, timestamp, type, userId >= 0 ? userId : null,
+                getString(in), getString(in), getString(in), getString(in));
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * One mapped segment file with a sparse index from record number to position
+     */
+    private static final class Segment {
+
+        final long baseOffset;
+        final Path path;
+        final MappedByteBuffer buffer;
+
+        /** Position after the last complete record; published after the record is written */
+        volatile int end = SEGMENT_HEADER_SIZE;
+        volatile int count;
+        volatile int[] index = new int[16];
+        volatile int indexed;
+
+        private Segment(long baseOffset, Path path, MappedByteBuffer buffer) {
+            this.baseOffset = baseOffset;
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path path, long baseOffset, int size) throws IOException {
+            try (FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                return new Segment(baseOffset, path, buffer);
+            }
+        }
+
+        /**
+         * Map an existing segment and find its end
+         * @param writable true for the newest segment, which is verified and appended to
+         */
+        static Segment open(Path path, boolean writable) throws IOException {
+            String name = path.getFileName().toString();
+            long baseOffset = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+            MappedByteBuffer buffer;
+            try (FileChannel channel = writable
+                    ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                    : FileChannel.open(path, StandardOpenOption.READ)) {
+                buffer = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+                        0, channel.size());
+            }
+            if (buffer.capacity() < SEGMENT_HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not an audit log segment: " + path);
+            }
+            Segment segment = new Segment(baseOffset, path, buffer);
+            segment.recover(writable);
+            return segment;
+        }
+
+        void append(byte[] payload, int length, int crc) {
+            int position = end;
+            buffer.putInt(position + 4, crc);
+            buffer.put(position + RECORD_HEADER_SIZE, payload, 0, length);
+            buffer.putInt(position, length);
+            indexIfDue(position);
+            count++;
+            end = position + RECORD_HEADER_SIZE + length;
+        }
+
+        void read(long fromOffset, int maxEvents, List<AuditEvent> out) {
+            int limit = end;
+            int[] positions = index;
+            int entries = Math.min(indexed, positions.length);
+            if (entries == 0) {
+                return;
+            }
+            int slot = (int) Math.min((fromOffset - baseOffset) / INDEX_INTERVAL, entries - 1);
+            int position = positions[slot];
+            long offset = baseOffset + (long) slot * INDEX_INTERVAL;
+            while (position < limit && out.size() < maxEvents) {
+                int length = buffer.getInt(position);
+                if (offset >= fromOffset) {
+                    byte[] payload = new byte[length];
+                    buffer.get(position + RECORD_HEADER_SIZE, payload);
+                    out.add(decode(offset, ByteBuffer.wrap(payload)));
+                }
+                position += RECORD_HEADER_SIZE + length;
+                offset++;
+            }
+        }
+
+        private void recover(boolean verify) {
+            int position = SEGMENT_HEADER_SIZE;
+            int capacity = buffer.capacity();
+            CRC32C crc = new CRC32C();
+            byte[] payload = new byte[MAX_PAYLOAD_SIZE];
+            while (position + RECORD_HEADER_SIZE <= capacity) {
+                int length = buffer.getInt(position);
+                if (length <= 0 || length > MAX_PAYLOAD_SIZE || position + RECORD_HEADER_SIZE + length > capacity) {
+                    break;
+                }
+                if (verify) {
+                    buffer.get(position + RECORD_HEADER_SIZE, payload, 0, length);
+                    crc.reset();
+                    crc.update(payload, 0, length);
+                    if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                        break;
+                    }
+                }
+                indexIfDue(position);
+                count++;
+                position += RECORD_HEADER_SIZE + length;
+            }
+            end = position;
+
+            if (verify && position + 4 <= capacity && buffer.getInt(position) != 0) {
+                log.warn("Discarding torn audit records after offset {} in {}", baseOffset + count, path);
+                for (int i = position; i < capacity; i++) {
+                    buffer.put(i, (byte) 0);
+                }
+                buffer.force();
+            }
+        }
+
+        private void indexIfDue(int position) {
+            if (count % INDEX_INTERVAL != 0) {
+                return;
+            }
+            int slot = count / INDEX_INTERVAL;
+            int[] positions = index;
+            if (slot == positions.length) {
+                int[] grown = new int[positions.length * 2];
+                System.arraycopy(positions, 0, grown, 0, positions.length);
+                grown[slot] = position;
+                index = grown;
+            } else {
+                positions[slot] = position;
+            }
+            indexed = slot + 1;
+        }
+    }
+}
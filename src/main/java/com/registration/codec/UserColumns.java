@@ -0,0 +1,67 @@
+package com.registration.codec;
+
+import org.springframework.http.MediaType;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Compact block-columnar binary encoding of UserResponseDTOs for bulk transfer
+ *
+ * A stream is the magic bytes "USRC", a version byte, a sequence of blocks and a trailer.
+ * Each block is varint(rowCount) varint(byteLength) followed by its columns; a row count
+ * of zero ends the blocks. The trailer is varint(limit), zero when the stream is not a
+ * page, and the next page cursor as a string column value.
+ *
+ * Columns follow the DTO's field order. Integers are unsigned LEB128 varints; signed
+ * values are zigzag encoded first.
+ * <ul>
+ *   <li>userId: presence, then the delta from the previous ID</li>
+ *   <li>strings: a mode byte; plain columns hold varint(utf8Length + 1) and the bytes per
+ *       row, dictionary columns hold the distinct values once and then varint(index + 1)
+ *       per row; zero is null in both</li>
+ *   <li>dateOfBirth: presence, then the epoch day</li>
+ *   <li>isActive, emailVerified: presence, then a bitmap of the values</li>
+ *   <li>createdAt, updatedAt: presence, then the delta in microseconds from the previous
+ *       value, read as UTC wall-clock time so a LocalDateTime round-trips unchanged</li>
+ * </ul>
+ * Presence is a byte: 0 when every row has a value, 1 when a bitmap of non-null rows follows;
+ * only non-null rows carry a value. Bitmaps are little-endian within each byte.
+ */
+public final class UserColumns {
+
+    public static final String MEDIA_TYPE_VALUE = "application/x-user-columns";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    /** Rows per block; blocks are the unit a reader decodes and a writer buffers */
+    public static final int DEFAULT_BLOCK_SIZE = 1024;
+
+    static final byte[] MAGIC = {'U', 'S', 'R', 'C'};
+    static final int VERSION = 1;
+
+    static final int ALL_PRESENT = 0;
+    static final int PRESENCE_BITMAP = 1;
+
+    static final int PLAIN = 0;
+    static final int DICTIONARY = 1;
+
+    private UserColumns() {
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static long toEpochMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,314 @@
+package com.registration.codec;
+
+import com.registration.dto.UserResponseDTO;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import static com.registration.codec.UserColumns.*;
+
+/**
+ * Reads users written in the UserColumns format
+ * Decodes one block at a time, so a full directory can be consumed without holding it
+ * in memory. Malformed input fails with an IOException. Not thread-safe.
+ */
+public class UserColumnsReader implements Closeable {
+
+    /** Upper bounds that keep a corrupt length from allocating huge arrays */
+    private static final int MAX_BLOCK_ROWS = 1 << 20;
+    private static final int MAX_BLOCK_BYTES = 256 * 1024 * 1024;
+
+    private final InputStream in;
+    private byte[] block = new byte[0];
+    private int position;
+    private int limit;
+    private boolean started;
+    private boolean finished;
+    private int pageLimit;
+    private String nextCursor;
+
+    public UserColumnsReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Read the next block of users
+     * @return Users in the block, or null once the stream has ended
+     */
+    public List<UserResponseDTO> readBlock() throws IOException {
+        if (finished) {
+            return null;
+        }
+        readHeaderOnce();
+        long rows = readStreamVarint();
+        if (rows == 0) {
+            pageLimit = (int) readStreamVarint();
+            nextCursor = readStreamString();
+            finished = true;
+            return null;
+        }
+        long length = readStreamVarint();
+        if (rows > MAX_BLOCK_ROWS || length > MAX_BLOCK_BYTES) {
+            throw new IOException("Block of " + rows + " rows in " + length + " bytes exceeds the limits");
+        }
+        if (block.length < length) {
+            block = new byte[(int) length];
+        }
+        if (in.readNBytes(block, 0, (int) length) != length) {
+            throw new EOFException("Truncated block");
+        }
+        position = 0;
+        limit = (int) length;
+        List<UserResponseDTO> users = decodeColumns((int) rows);
+        if (position != limit) {
+            throw new IOException("Block has " + (limit - position) + " unread bytes");
+        }
+        return users;
+    }
+
+    /**
+     * Read every remaining user
+     */
+    public List<UserResponseDTO> readAll() throws IOException {
+        List<UserResponseDTO> users = new ArrayList<>();
+        List<UserResponseDTO> next;
+        while ((next = readBlock()) != null) {
+            users.addAll(next);
+        }
+        return users;
+    }
+
+    /**
+     * @return Page size limit from the trailer, 0 if the stream is not a page; valid once finished
+     */
+    public int getLimit() {
+        return pageLimit;
+    }
+
+    /**
+     * @return Cursor of the next page from the trailer, null on the last page; valid once finished
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void readHeaderOnce() throws IOException {
+        if (started) {
+            return;
+        }
+        byte[] header = in.readNBytes(MAGIC.length + 1);
+        if (header.length != MAGIC.length + 1 || !Arrays.equals(header, 0, MAGIC.length, MAGIC, 0, MAGIC.length)) {
+            throw new IOException("Not a user columns stream");
+        }
+        if (header[MAGIC.length] != VERSION) {
+            throw new IOException("Unsupported user columns version " + header[MAGIC.length]);
+        }
+        started = true;
+    }
+
+    private List<UserResponseDTO> decodeColumns(int rows) throws IOException {
+        List<UserResponseDTO> users = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            users.add(new UserResponseDTO());
+        }
+        readLongs(users, UserResponseDTO::setUserId);
+        readStrings(users, UserResponseDTO::setFirstName);
+        readStrings(users, UserResponseDTO::setLastName);
+        readStrings(users, UserResponseDTO::setUsername);
+        readStrings(users, UserResponseDTO::setEmail);
+        readStrings(users, UserResponseDTO::setPhoneNumber);
+        readDates(users, UserResponseDTO::setDateOfBirth);
+        readStrings(users, UserResponseDTO::setGender);
+        readStrings(users, UserResponseDTO::setAddress);
+        readStrings(users, UserResponseDTO::setCity);
+        readStrings(users, UserResponseDTO::setState);
+        readStrings(users, UserResponseDTO::setPostalCode);
+        readStrings(users, UserResponseDTO::setCountry);
+        readBooleans(users, UserResponseDTO::setIsActive);
+        readBooleans(users, UserResponseDTO::setEmailVerified);
+        readTimestamps(users, UserResponseDTO::setCreatedAt);
+        readTimestamps(users, UserResponseDTO::setUpdatedAt);
+        return users;
+    }
+
+    private void readLongs(List<UserResponseDTO> users, BiConsumer<UserResponseDTO, Long> column) throws IOException {
+        boolean[] present = readPresence(users.size());
+        long previous = 0;
+        for (int i = 0; i < users.size(); i++) {
+            if (present == null || present[i]) {
+                previous += unzigzag(readVarint());
+                column.accept(users.get(i), previous);
+            }
+        }
+    }
+
+    private void readDates(List<UserResponseDTO> users, BiConsumer<UserResponseDTO, LocalDate> column)
+            throws IOException {
+        boolean[] present = readPresence(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            if (present == null || present[i]) {
+                column.accept(users.get(i), LocalDate.ofEpochDay(unzigzag(readVarint())));
+            }
+        }
+    }
+
+    private void readTimestamps(List<UserResponseDTO> users, BiConsumer<UserResponseDTO, LocalDateTime> column)
+            throws IOException {
+        boolean[] present = readPresence(users.size());
+        long previous = 0;
+        for (int i = 0; i < users.size(); i++) {
+            if (present == null || present[i]) {
+                previous += unzigzag(readVarint());
+                column.accept(users.get(i), fromEpochMicros(previous));
+            }
+        }
+    }
+
+    private void readBooleans(List<UserResponseDTO> users, BiConsumer<UserResponseDTO, Boolean> column)
+            throws IOException {
+        boolean[] present = readPresence(users.size());
+        int bit = 8;
+        int current = 0;
+        for (int i = 0; i < users.size(); i++) {
+            if (present != null && !present[i]) {
+                continue;
+            }
+            if (bit == 8) {
+                current = readByte();
+                bit = 0;
+            }
+            column.accept(users.get(i), (current & (1 << bit++)) != 0);
+        }
+    }
+
+    /**
+     * @return Which rows have a value, or null when all do
+     */
+    private boolean[] readPresence(int rows) throws IOException {
+        int mode = readByte();
+        if (mode == ALL_PRESENT) {
+            return null;
+        }
+        if (mode != PRESENCE_BITMAP) {
+            throw new IOException("Unknown presence mode " + mode);
+        }
+        boolean[] present = new boolean[rows];
+        for (int i = 0; i < rows; i += 8) {
+            int bits = readByte();
+            for (int j = 0; j < 8 && i + j < rows; j++) {
+                present[i + j] = (bits & (1 << j)) != 0;
+            }
+        }
+        return present;
+    }
+
+    private void readStrings(List<UserResponseDTO> users, BiConsumer<UserResponseDTO, String> column)
+            throws IOException {
+        int mode = readByte();
+        if (mode == PLAIN) {
+            for (UserResponseDTO user : users) {
+                column.accept(user, readString());
+            }
+            return;
+        }
+        if (mode != DICTIONARY) {
+            throw new IOException("Unknown string column mode " + mode);
+        }
+        long size = readVarint();
+        if (size > users.size()) {
+            throw new IOException("Dictionary of " + size + " entries for " + users.size() + " rows");
+        }
+        String[] dictionary = new String[(int) size];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = readString();
+        }
+        for (UserResponseDTO user : users) {
+            long index = readVarint();
+            if (index > dictionary.length) {
+                throw new IOException("Dictionary index " + index + " out of range");
+            }
+            column.accept(user, index == 0 ? null : dictionary[(int) index - 1]);
+        }
+    }
+
+    private String readString() throws IOException {
+        long length = readVarint();
+        if (length == 0) {
+            return null;
+        }
+        int bytes = (int) (length - 1);
+        if (length - 1 > limit - position) {
+            throw new EOFException("String runs past the end of the block");
+        }
+        String value = new String(block, position, bytes, StandardCharsets.UTF_8);
+        position += bytes;
+        return value;
+    }
+
+    private int readByte() throws IOException {
+        if (position >= limit) {
+            throw new EOFException("Column runs past the end of the block");
+        }
+        return block[position++] & 0xFF;
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Varint is too long");
+    }
+
+    private long readStreamVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Stream ended before its trailer");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Varint is too long");
+    }
+
+    private String readStreamString() throws IOException {
+        long length = readStreamVarint();
+        if (length == 0) {
+            return null;
+        }
+        if (length - 1 > MAX_BLOCK_BYTES) {
+            throw new IOException("String of " + (length - 1) + " bytes exceeds the limits");
+        }
+        byte[] bytes = in.readNBytes((int) (length - 1));
+        if (bytes.length != length - 1) {
+            throw new EOFException("Truncated trailer");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,313 @@
+package com.registration.codec;
+
+import com.registration.dto.UserResponseDTO;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static com.registration.codec.UserColumns.*;
+
+/**
+ * Writes users in the UserColumns format
+ * Rows are buffered until a block is full, so only one block of users is referenced at a
+ * time. finish() must be called to end the stream; the output stream is left open.
+ * Not thread-safe.
+ */
+public class UserColumnsWriter implements Flushable {
+
+    private final OutputStream out;
+    private final int blockSize;
+    private final List<UserResponseDTO> rows;
+    private byte[] buffer = new byte[8192];
+    private int position;
+    private boolean started;
+    private boolean finished;
+    private long rowCount;
+
+    public UserColumnsWriter(OutputStream out) {
+        this(out, DEFAULT_BLOCK_SIZE);
+    }
+
+    public UserColumnsWriter(OutputStream out, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        this.out = out;
+        this.blockSize = blockSize;
+        this.rows = new ArrayList<>(Math.min(blockSize, DEFAULT_BLOCK_SIZE));
+    }
+
+    /**
+     * Add a user, writing a block when it is full
+     */
+    public void write(UserResponseDTO user) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("Stream already finished");
+        }
+        rows.add(user);
+        if (rows.size() == blockSize) {
+            writeBlock();
+        }
+    }
+
+    /**
+     * Add users in order
+     */
+    public void writeAll(Iterable<UserResponseDTO> users) throws IOException {
+        for (UserResponseDTO user : users) {
+            write(user);
+        }
+    }
+
+    /**
+     * End a stream that is not a page
+     */
+    public void finish() throws IOException {
+        finish(0, null);
+    }
+
+    /**
+     * Write the last block and the trailer
+     * @param limit Page size limit, or 0 when the stream is not a page
+     * @param nextCursor Cursor of the next page, or null on the last page
+     */
+    public void finish(int limit, String nextCursor) throws IOException {
+        if (finished) {
+            return;
+        }
+        if (!rows.isEmpty()) {
+            writeBlock();
+        }
+        writeHeaderOnce();
+        position = 0;
+        putVarint(0);
+        putVarint(limit);
+        putString(nextCursor);
+        out.write(buffer, 0, position);
+        finished = true;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * @return Number of users written so far
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    private void writeHeaderOnce() throws IOException {
+        if (!started) {
+            out.write(MAGIC);
+            out.write(VERSION);
+            started = true;
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        writeHeaderOnce();
+        position = 0;
+        encodeColumns();
+        byte[] payload = buffer;
+        int length = position;
+
+        byte[] prefix = new byte[20];
+        int prefixLength = varint(prefix, 0, rows.size());
+        prefixLength = varint(prefix, prefixLength, length);
+        out.write(prefix, 0, prefixLength);
+        out.write(payload, 0, length);
+
+        rowCount += rows.size();
+        rows.clear();
+    }
+
+    private void encodeColumns() {
+        putLongs(UserResponseDTO::getUserId);
+        putStrings(UserResponseDTO::getFirstName);
+        putStrings(UserResponseDTO::getLastName);
+        putStrings(UserResponseDTO::getUsername);
+        putStrings(UserResponseDTO::getEmail);
+        putStrings(UserResponseDTO::getPhoneNumber);
+        putDates(UserResponseDTO::getDateOfBirth);
+        putStrings(UserResponseDTO::getGender);
+        putStrings(UserResponseDTO::getAddress);
+        putStrings(UserResponseDTO::getCity);
+        putStrings(UserResponseDTO::getState);
+        putStrings(UserResponseDTO::getPostalCode);
+        putStrings(UserResponseDTO::getCountry);
+        putBooleans(UserResponseDTO::getIsActive);
+        putBooleans(UserResponseDTO::getEmailVerified);
+        putTimestamps(UserResponseDTO::getCreatedAt);
+        putTimestamps(UserResponseDTO::getUpdatedAt);
+    }
+
+    private void putLongs(Function<UserResponseDTO, Long> column) {
+        putPresence(column);
+        long previous = 0;
+        for (UserResponseDTO row : rows) {
+            Long value = column.apply(row);
+            if (value != null) {
+                putVarint(zigzag(value - previous));
+                previous = value;
+            }
+        }
+    }
+
+    private void putDates(Function<UserResponseDTO, LocalDate> column) {
+        putPresence(column);
+        for (UserResponseDTO row : rows) {
+            LocalDate value = column.apply(row);
+            if (value != null) {
+                putVarint(zigzag(value.toEpochDay()));
+            }
+        }
+    }
+
+    private void putTimestamps(Function<UserResponseDTO, LocalDateTime> column) {
+        putPresence(column);
+        long previous = 0;
+        for (UserResponseDTO row : rows) {
+            LocalDateTime value = column.apply(row);
+            if (value != null) {
+                long micros = toEpochMicros(value);
+                putVarint(zigzag(micros - previous));
+                previous = micros;
+            }
+        }
+    }
+
+    private void putBooleans(Function<UserResponseDTO, Boolean> column) {
+        putPresence(column);
+        int bit = 0;
+        int current = 0;
+        for (UserResponseDTO row : rows) {
+            Boolean value = column.apply(row);
+            if (value == null) {
+                continue;
+            }
+            if (value) {
+                current |= 1 << bit;
+            }
+            if (++bit == 8) {
+                putByte(current);
+                bit = 0;
+                current = 0;
+            }
+        }
+        if (bit > 0) {
+            putByte(current);
+        }
+    }
+
+    private void putPresence(Function<UserResponseDTO, ?> column) {
+        boolean allPresent = true;
+        for (UserResponseDTO row : rows) {
+            if (column.apply(row) == null) {
+                allPresent = false;
+                break;
+            }
+        }
+        if (allPresent) {
+            putByte(ALL_PRESENT);
+            return;
+        }
+        putByte(PRESENCE_BITMAP);
+        int size = rows.size();
+        for (int i = 0; i < size; i += 8) {
+            int bits = 0;
+            for (int j = 0; j < 8 && i + j < size; j++) {
+                if (column.apply(rows.get(i + j)) != null) {
+                    bits |= 1 << j;
+                }
+            }
+            putByte(bits);
+        }
+    }
+
+    /**
+     * Dictionary-encode a column when at most half its values are distinct, which is
+     * typical of gender, city, state and country
+     */
+    private void putStrings(Function<UserResponseDTO, String> column) {
+        int maxDistinct = rows.size() / 2;
+        Map<String, Integer> dictionary = new HashMap<>();
+        for (UserResponseDTO row : rows) {
+            String value = column.apply(row);
+            if (value != null && dictionary.putIfAbsent(value, dictionary.size()) == null
+                    && dictionary.size() > maxDistinct) {
+                dictionary = null;
+                break;
+            }
+        }
+
+        if (dictionary == null) {
+            putByte(PLAIN);
+            for (UserResponseDTO row : rows) {
+                putString(column.apply(row));
+            }
+            return;
+        }
+
+        putByte(DICTIONARY);
+        putVarint(dictionary.size());
+        String[] entries = new String[dictionary.size()];
+        dictionary.forEach((value, index) -> entries[index] = value);
+        for (String entry : entries) {
+            putString(entry);
+        }
+        for (UserResponseDTO row : rows) {
+            String value = column.apply(row);
+            putVarint(value == null ? 0 : dictionary.get(value) + 1);
+        }
+    }
+
+    private void putString(String value) {
+        if (value == null) {
+            putVarint(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putVarint(bytes.length + 1L);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void putByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    private void putVarint(long value) {
+        ensureCapacity(10);
+        position = varint(buffer, position, value);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (position + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+        }
+    }
+
+    private static int varint(byte[] target, int offset, long value) {
+        while ((value & ~0x7FL) != 0) {
+            target[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        target[offset++] = (byte) value;
+        return offset;
+    }
+}
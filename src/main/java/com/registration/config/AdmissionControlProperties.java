@@ -0,0 +1,49 @@
+package com.registration.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admission control settings (registration.admission.*)
+ * Each named endpoint group gets its own per-client token buckets and overload thresholds.
+ */
+@Data
+@ConfigurationProperties(prefix = "registration.admission")
+public class AdmissionControlProperties {
+
+    /** Most clients tracked per endpoint group; the least recently seen are forgotten first */
+    private long maxClients = 100_000;
+
+    private Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+
+    @Data
+    public static class Endpoint {
+
+        /** Path patterns, e.g. /api/users/register */
+        private List<String> paths = new ArrayList<>();
+
+        /** HTTP methods guarded on those paths */
+        private List<String> methods = new ArrayList<>(List.of("POST"));
+
+        /** Sustained requests per second per client; 0 turns rate limiting off */
+        private double rate;
+
+        /** Requests a client may make at once before the rate applies */
+        private int burst = 1;
+
+        /** Shed with 503 while more hashing tasks than this are queued; negative turns it off */
+        private int maxHashingQueue = -1;
+
+        /** Shed with 503 while more callers than this wait for a connection; negative turns it off */
+        private int maxPoolWaiting = -1;
+
+        /** Retry-After sent when shedding on pool wait */
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+}
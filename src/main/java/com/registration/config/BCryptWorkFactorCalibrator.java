@@ -0,0 +1,76 @@
+package com.registration.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Measures BCrypt on the current host and picks the highest work factor whose
+ * single-threaded p99 hashing latency stays within a budget
+ * Each extra cost step doubles the work, so calibration stops at the first step over budget
+ */
+@Slf4j
+public class BCryptWorkFactorCalibrator {
+
+    private static final String SAMPLE_PASSWORD = "calibration-Password-123";
+    private static final int WARMUP_HASHES = 2;
+
+    private final Duration targetLatency;
+    private final int minStrength;
+    private final int maxStrength;
+    private final int samples;
+
+    public BCryptWorkFactorCalibrator(Duration targetLatency, int minStrength, int maxStrength, int samples) {
+        if (minStrength < 4 || maxStrength > 31 || minStrength > maxStrength) {
+            throw new IllegalArgumentException("BCrypt strength range must be within 4..31, got "
+                    + minStrength + ".." + maxStrength);
+        }
+        this.targetLatency = targetLatency;
+        this.minStrength = minStrength;
+        this.maxStrength = maxStrength;
+        this.samples = Math.max(1, samples);
+    }
+
+    /**
+     * Benchmark each work factor from the minimum upwards
+     * @return Highest work factor within budget, or the minimum if even that is over budget
+     */
+    public int calibrate() {
+        int chosen = minStrength;
+        for (int strength = minStrength; strength <= maxStrength; strength++) {
+            Duration p99 = measureP99(strength);
+            log.info("BCrypt cost {}: p99 {} ms (budget {} ms)", strength, p99.toMillis(), targetLatency.toMillis());
+            if (p99.compareTo(targetLatency) > 0) {
+                if (strength == minStrength) {
+                    log.warn("BCrypt cost {} already exceeds the {} ms budget; using it as the floor",
+                            minStrength, targetLatency.toMillis());
+                }
+                break;
+            }
+            chosen = strength;
+        }
+        return chosen;
+    }
+
+    private Duration measureP99(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        for (int i = 0; i < WARMUP_HASHES; i++) {
+            encoder.encode(SAMPLE_PASSWORD);
+        }
+        long[] timings = new long[samples];
+        for (int i = 0; i < samples; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            timings[i] = System.nanoTime() - start;
+            // Once a sample is over budget the p99 cannot be within it for small sample counts
+            if (samples < 100 && timings[i] > targetLatency.toNanos()) {
+                return Duration.ofNanos(timings[i]);
+            }
+        }
+        Arrays.sort(timings);
+        int index = (int) Math.ceil(samples * 0.99) - 1;
+        return Duration.ofNanos(timings[Math.max(0, index)]);
+    }
+}
@@ -0,0 +1,73 @@
+package com.registration.config;
+
+import com.registration.datasource.ConcurrencyLimitedDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import java.time.Duration;
+
+/**
+ * Request execution mode and connection concurrency limiting
+ *
+ * Request handling runs on virtual threads when spring.threads.virtual.enabled is
+ * true and the JVM is Java 21 or newer; otherwise Tomcat's platform thread pool is
+ * used. Either way the Hikari pool is wrapped in a {@link ConcurrencyLimitedDataSource}
+ * so that thousands of request threads queue on a bounded semaphore rather than
+ * inside the pool.
+ */
+@Configuration
+@Slf4j
+public class ConcurrencyLimiterConfig {
+
+    private static final int VIRTUAL_THREADS_MIN_JAVA = 21;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsRequested;
+
+    /**
+     * Wrap every Hikari pool in a concurrency limiter sized to the pool
+     * Static so that registering the post-processor does not initialize this configuration early
+     */
+    @Bean
+    @ConditionalOnProperty(name = "registration.datasource.limiter.enabled", havingValue = "true", matchIfMissing = true)
+    public static BeanPostProcessor concurrencyLimitedDataSourcePostProcessor(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${registration.datasource.limiter.max-waiting:1000}") int maxWaiting,
+            @Value("${registration.datasource.limiter.acquire-timeout:30s}") Duration acquireTimeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    log.info("Limiting '{}' to {} concurrent connections with at most {} waiting",
+                            beanName, hikari.getMaximumPoolSize(), maxWaiting);
+                    return new ConcurrencyLimitedDataSource(hikari, hikari.getMaximumPoolSize(), maxWaiting,
+                            acquireTimeout, meterRegistry.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Report the request execution mode once the server is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void logExecutionMode() {
+        int javaVersion = Runtime.version().feature();
+        if (virtualThreadsRequested && javaVersion < VIRTUAL_THREADS_MIN_JAVA) {
+            log.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads; "
+                    + "requests run on platform threads", javaVersion);
+        } else {
+            log.info("Requests run on {} threads", virtualThreadsRequested ? "virtual" : "platform");
+        }
+    }
+}
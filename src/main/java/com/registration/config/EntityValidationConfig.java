@@ -0,0 +1,34 @@
+package com.registration.config;
+
+import jakarta.persistence.ValidationMode;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Entity Validation Configuration
+ * Chooses whether entities are validated again when they are persisted or updated
+ */
+@Configuration
+@Slf4j
+public class EntityValidationConfig {
+
+    /**
+     * Bean validation of entities at persist and update time
+     * Every write path validates its DTO first and the DTO carries all of the entity's
+     * constraints, so entities are only validated again when the fast-path validator is off,
+     * unless registration.validation.entities is set explicitly.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer entityValidationMode(
+            @Value("${registration.validation.fast-path:true}") boolean fastPath,
+            @Value("${registration.validation.entities:#{null}}") Boolean entities) {
+        boolean validate = entities != null ? entities : !fastPath;
+        ValidationMode mode = validate ? ValidationMode.CALLBACK : ValidationMode.NONE;
+        log.info("Entity validation at persist time: {} ({})", mode, entities != null ? "configured" : "fast-path");
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.JAKARTA_VALIDATION_MODE, mode.name());
+    }
+}
@@ -0,0 +1,47 @@
+package com.registration.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Password Encoder Configuration
+ * Chooses the BCrypt work factor for this host at startup unless one is configured explicitly
+ */
+@Configuration
+@Slf4j
+public class PasswordEncoderConfig {
+
+    /**
+     * PasswordEncoder Bean for password encryption
+     * Uses BCrypt with a fixed strength, or with the highest strength whose measured
+     * p99 latency fits the configured budget. The strength is part of every stored
+     * hash, so hashes made at an older strength keep verifying after a change.
+     * @return PasswordEncoder instance
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(
+            MeterRegistry meterRegistry,
+            @Value("${registration.password.bcrypt.strength:0}") int strength,
+            @Value("${registration.password.bcrypt.target-latency:50ms}") Duration targetLatency,
+            @Value("${registration.password.bcrypt.min-strength:10}") int minStrength,
+            @Value("${registration.password.bcrypt.max-strength:16}") int maxStrength,
+            @Value("${registration.password.bcrypt.samples:20}") int samples) {
+        int chosen = strength > 0
+                ? strength
+                : new BCryptWorkFactorCalibrator(targetLatency, minStrength, maxStrength, samples).calibrate();
+        log.info("Using BCrypt strength {} ({})", chosen, strength > 0 ? "configured" : "calibrated");
+
+        Gauge.builder("registration.hashing.bcrypt.strength", () -> chosen)
+                .description("BCrypt work factor used for new password hashes")
+                .register(meterRegistry);
+        return new BCryptPasswordEncoder(chosen);
+    }
+}
@@ -0,0 +1,121 @@
+package com.registration.config;
+
+import com.registration.datasource.H2ReplicationSimulator;
+import com.registration.datasource.ReadReplicaDataSource;
+import com.registration.datasource.ReadYourWritesTracker;
+import com.registration.web.ClientKeyResolver;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read/write splitting across a primary and read replicas
+ *
+ * Active once registration.datasource.routing.replicas[0].url is set. The primary pool is
+ * built from spring.datasource.* as before, so it keeps its concurrency limiter. The
+ * application DataSource is a {@link LazyConnectionDataSourceProxy}, which fetches the
+ * physical connection on first use, after the transaction has been marked read-only.
+ * Read-only transactions therefore reach {@link ReadReplicaDataSource}, and everything
+ * else reaches the primary.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "registration.datasource.routing.replicas[0]", name = "url")
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+@Slf4j
+public class ReadReplicaConfig {
+
+    /**
+     * Primary pool, configured exactly like the auto-configured one
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        if (StringUtils.hasText(properties.getName())) {
+            dataSource.setPoolName(properties.getName());
+        }
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(ReadReplicaProperties properties,
+                                                       ClientKeyResolver clientKeys) {
+        return new ReadYourWritesTracker(properties.getReadYourWritesWindow(), properties.getMaxTrackedClients(),
+                clientKeys::current);
+    }
+
+    @Bean
+    public ReadReplicaDataSource readReplicaDataSource(ReadReplicaProperties properties,
+                                                       @Qualifier("primaryDataSource") DataSource primary,
+                                                       ReadYourWritesTracker readYourWrites,
+                                                       MeterRegistry meterRegistry) {
+        List<HikariDataSource> pools = new ArrayList<>();
+        List<ReadReplicaProperties.Replica> replicas = properties.getReplicas();
+        for (int i = 0; i < replicas.size(); i++) {
+            pools.add(replicaPool(replicas.get(i), i, meterRegistry));
+        }
+        log.info("Routing read-only transactions to {} replicas; reads stay on the primary for {} after a write",
+                pools.size(), properties.getReadYourWritesWindow());
+        return new ReadReplicaDataSource(pools, primary, readYourWrites, properties.getHealthCheckInterval(),
+                meterRegistry);
+    }
+
+    /**
+     * Application DataSource: the primary, or the replicas for read-only transactions
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 ReadReplicaDataSource readReplicas) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(readReplicas);
+        return dataSource;
+    }
+
+    /**
+     * Local testing only: keep embedded H2 replicas filled from the embedded H2 primary
+     */
+    @Bean
+    @ConditionalOnProperty("registration.datasource.routing.simulated-replication-lag")
+    public H2ReplicationSimulator h2ReplicationSimulator(ReadReplicaProperties properties,
+                                                         DataSourceProperties primary) {
+        List<H2ReplicationSimulator.Database> replicas = properties.getReplicas().stream()
+                .map(replica -> new H2ReplicationSimulator.Database(replica.getUrl(), replica.getUsername(),
+                        replica.getPassword()))
+                .toList();
+        return new H2ReplicationSimulator(new H2ReplicationSimulator.Database(primary.determineUrl(),
+                primary.determineUsername(), primary.determinePassword()), replicas,
+                properties.getSimulatedReplicationLag());
+    }
+
+    private static HikariDataSource replicaPool(ReadReplicaProperties.Replica replica, int index,
+                                                MeterRegistry meterRegistry) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(StringUtils.hasText(replica.getName()) ? replica.getName() : "replica-" + (index + 1));
+        pool.setJdbcUrl(replica.getUrl());
+        pool.setUsername(replica.getUsername());
+        pool.setPassword(replica.getPassword());
+        pool.setMaximumPoolSize(replica.getMaximumPoolSize());
+        pool.setConnectionTimeout(replica.getConnectionTimeout().toMillis());
+        pool.setReadOnly(true);
+        // A replica that is down at startup must not stop the application; the health check
+        // keeps it out of rotation until it answers
+        pool.setInitializationFailTimeout(-1);
+        pool.setMetricRegistry(meterRegistry);
+        return pool;
+    }
+}
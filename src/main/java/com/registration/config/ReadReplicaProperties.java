@@ -0,0 +1,50 @@
+package com.registration.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replica routing settings (registration.datasource.routing.*)
+ * Routing is only set up when at least one replica URL is configured.
+ */
+@Data
+@ConfigurationProperties(prefix = "registration.datasource.routing")
+public class ReadReplicaProperties {
+
+    /** Replicas that serve read-only transactions */
+    private List<Replica> replicas = new ArrayList<>();
+
+    /** How long a client's reads stay on the primary after one of its writes commits */
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+    /** Most clients tracked for read-your-writes; the oldest writers are forgotten first */
+    private long maxTrackedClients = 100_000;
+
+    /** How often every replica is probed; a replica that fails is skipped until it passes again */
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    /** Local testing only: copy the primary's users table into each H2 replica this often */
+    private Duration simulatedReplicationLag;
+
+    @Data
+    public static class Replica {
+
+        /** Pool and metric name; defaults to replica-N */
+        private String name;
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private int maximumPoolSize = 10;
+
+        /** Longest wait for a replica connection before the read moves elsewhere */
+        private Duration connectionTimeout = Duration.ofSeconds(2);
+    }
+}
@@ -0,0 +1,102 @@
+package com.registration.config;
+
+import com.registration.datasource.ShardRoutingDataSource;
+import com.registration.datasource.ShardSchemaInitializer;
+import com.registration.repository.UserKeyDirectory;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hash-sharded users across several databases
+ *
+ * Active once registration.sharding.shards[0].url is set, in place of spring.datasource.*.
+ * The application DataSource routes each connection to the shard selected for the
+ * calling thread, and every shard gets the same schema plus the key directory table.
+ * Cannot be combined with read replicas: both would provide the application DataSource,
+ * so startup fails when registration.datasource.routing is configured as well.
+ * @see com.registration.service.UserShards
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "registration.sharding.shards[0]", name = "url")
+@Conditional(ShardingConfig.WithoutReadReplicas.class)
+@EnableConfigurationProperties(ShardingProperties.class)
+@Slf4j
+public class ShardingConfig {
+
+    @Bean
+    @Primary
+    public ShardRoutingDataSource dataSource(ShardingProperties properties, MeterRegistry meterRegistry) {
+        List<HikariDataSource> pools = new ArrayList<>();
+        List<ShardingProperties.Shard> shards = properties.getShards();
+        for (int i = 0; i < shards.size(); i++) {
+            pools.add(shardPool(shards.get(i), i, meterRegistry));
+        }
+        log.info("Partitioning users across {} shards", pools.size());
+        return new ShardRoutingDataSource(pools);
+    }
+
+    @Bean
+    public ShardSchemaInitializer shardSchemaInitializer(ShardingProperties properties, DataSource dataSource) {
+        return new ShardSchemaInitializer(properties.getShards().size(), dataSource,
+                List.of(UserKeyDirectory.CREATE_TABLE));
+    }
+
+    /**
+     * Hand the schema initializer to Hibernate, which gives it the mapping metadata
+     */
+    @Bean
+    public HibernatePropertiesCustomizer shardSchemaIntegrator(ShardSchemaInitializer shardSchemaInitializer) {
+        return hibernateProperties -> hibernateProperties.put(JpaSettings.INTEGRATOR_PROVIDER,
+                (IntegratorProvider) () -> List.of(shardSchemaInitializer));
+    }
+
+    private static HikariDataSource shardPool(ShardingProperties.Shard shard, int index,
+                                              MeterRegistry meterRegistry) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(StringUtils.hasText(shard.getName()) ? shard.getName() : "shard-" + index);
+        pool.setJdbcUrl(shard.getUrl());
+        pool.setUsername(shard.getUsername());
+        pool.setPassword(shard.getPassword());
+        pool.setMaximumPoolSize(shard.getMaximumPoolSize());
+        pool.setConnectionTimeout(shard.getConnectionTimeout().toMillis());
+        pool.setMetricRegistry(meterRegistry);
+        return pool;
+    }
+
+    /**
+     * Rejects read replica routing next to sharding while the configuration is still being
+     * read, before the two DataSource definitions collide
+     */
+    static class WithoutReadReplicas implements Condition {
+
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            Environment environment = context.getEnvironment();
+            if (StringUtils.hasText(environment.getProperty("registration.sharding.shards[0].url"))
+                    && StringUtils.hasText(environment.getProperty("registration.datasource.routing.replicas[0].url"))) {
+                throw new IllegalStateException(
+                        "registration.sharding and registration.datasource.routing cannot be combined");
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.registration.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sharding settings (registration.sharding.*)
+ * Sharding mode is on when at least one shard URL is configured. The shards, and their
+ * order, must not change once they hold users.
+ */
+@Data
+@ConfigurationProperties(prefix = "registration.sharding")
+public class ShardingProperties {
+
+    /** Databases that users are partitioned across, in shard order */
+    private List<Shard> shards = new ArrayList<>();
+
+    /** Threads that query shards in parallel for scatter-gather reads (0 = four per shard) */
+    private int scatterThreads = 0;
+
+    /** A key claimed this long ago by a registration that never finished may be claimed again */
+    private Duration claimTimeout = Duration.ofMinutes(1);
+
+    @Data
+    public static class Shard {
+
+        /** Pool and metric name; defaults to shard-N (counting from 0) */
+        private String name;
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private int maximumPoolSize = 10;
+
+        /** Longest wait for a connection to this shard */
+        private Duration connectionTimeout = Duration.ofSeconds(30);
+    }
+}
@@ -1,18 +1,67 @@
 package com.registration.config;
 
+import com.registration.web.AdmissionControlInterceptor;
+import com.registration.web.ServerTimingInterceptor;
+import com.registration.web.ServerTimingValidator;
+import com.registration.validation.UserRegistrationValidator;
+import com.registration.web.UserColumnsHttpMessageConverter;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.validation.Validator;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 /**
  * Web MVC Configuration
- * Configures CORS, view controllers, and static resources
+ * Configures CORS, view controllers, static resources, message converters, admission control
+ * and Server-Timing instrumentation
  */
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private final UserRegistrationValidator validator;
+    private final ObjectProvider<AdmissionControlInterceptor> admissionControl;
+
+    public WebConfig(UserRegistrationValidator validator,
+                     ObjectProvider<AdmissionControlInterceptor> admissionControl) {
+        this.validator = validator;
+        this.admissionControl = admissionControl;
+    }
+
+    /**
+     * Validation for @Valid controller arguments, timed for Server-Timing
+     * Registrations take the hand-written fast path; everything else uses bean validation.
+     */
+    @Override
+    public Validator getValidator() {
+        return new ServerTimingValidator(validator);
+    }
+
+    /**
+     * Shed or rate-limit expensive requests before their body is read, and time view
+     * rendering for Server-Timing
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        admissionControl.ifAvailable(registry::addInterceptor);
+        registry.addInterceptor(new ServerTimingInterceptor());
+    }
+
+    /**
+     * Offer the binary user columns format to clients that ask for it
+     * Added last, so JSON stays the default when the Accept header is a wildcard
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new UserColumnsHttpMessageConverter());
+    }
+
     /**
      * Configure CORS mapping for REST APIs
      */
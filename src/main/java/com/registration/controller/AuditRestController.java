@@ -0,0 +1,36 @@
+package com.registration.controller;
+
+import com.registration.audit.AuditEvent;
+import com.registration.dto.CursorPageDTO;
+import com.registration.service.AuditService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST Controller for replaying the user audit log
+ */
+@RestController
+@RequestMapping("/api/audit")
+@RequiredArgsConstructor
+@Slf4j
+public class AuditRestController {
+
+    private final AuditService auditService;
+
+    /**
+     * Read audit events in order, starting at an offset
+     * GET /api/audit/events?from={offset}&limit={limit}
+     */
+    @GetMapping("/events")
+    public ResponseEntity<CursorPageDTO<AuditEvent>> getEvents(
+            @RequestParam(value = "from", defaultValue = "0") long fromOffset,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        log.debug("REST API: Reading audit events from offset {} (limit {})", fromOffset, limit);
+        return ResponseEntity.ok(auditService.getEventsPage(fromOffset, limit));
+    }
+}
@@ -1,18 +1,40 @@
 package com.registration.controller;
 
+import com.registration.dto.CursorPageDTO;
 import com.registration.dto.UserRegistrationDTO;
 import com.registration.dto.UserResponseDTO;
+import com.registration.dto.UserSortOrder;
+import com.registration.exception.RateLimitExceededException;
+import com.registration.exception.ServiceOverloadedException;
 import com.registration.service.UserService;
+import com.registration.web.ChunkedTemplateWriter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.support.DefaultFormattingConversionService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.ServletRequestDataBinder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 
 /**
  * MVC Controller for User Registration Web Pages
@@ -24,7 +46,31 @@ import java.util.List;
 @Slf4j
 public class RegistrationController {
 
+    /** Web listing sort keys and the entity properties they sort by */
+    private static final Map<String, String> LISTING_SORTS = Map.of(
+            "id", "userId",
+            "name", "lastName",
+            "username", "username",
+            "email", "email",
+            "city", "city",
+            "status", "isActive");
+
+    /** Web listing columns in display order, by sort key */
+    private static final Map<String, String> LISTING_COLUMNS = columns(
+            "id", "ID", "name", "Name", "username", "Username", "email", "Email",
+            "phone", "Phone", "city", "City", "status", "Status");
+
+    private static final List<Integer> LISTING_SIZE_OPTIONS = List.of(10, 25, 50, 100);
+    private static final int MAX_LISTING_SIZE = 100;
+
+    /** Numbered page links shown around the current page */
+    private static final int PAGE_LINKS = 7;
+
+    /** Users read per query when streaming the full listing */
+    private static final int STREAM_CHUNK_SIZE = 500;
+
     private final UserService userService;
+    private final ChunkedTemplateWriter chunkedTemplateWriter;
 
     /**
      * Display home page
@@ -84,6 +130,34 @@ public class RegistrationController {
         }
     }
 
+    /**
+     * Show the form again when admission control turns a submission away, in place of the
+     * JSON error the API gets; the entered values are kept, the passwords are not
+     */
+    @ExceptionHandler({RateLimitExceededException.class, ServiceOverloadedException.class})
+    public String handleRejectedSubmission(RuntimeException ex, HttpServletRequest request,
+                                           HttpServletResponse response, Model model) {
+        boolean rateLimited = ex instanceof RateLimitExceededException;
+        Duration retryAfter = rateLimited
+                ? ((RateLimitExceededException) ex).getRetryAfter()
+                : ((ServiceOverloadedException) ex).getRetryAfter();
+        long retrySeconds = Math.max(1, (retryAfter == null ? 0 : retryAfter.toMillis() + 999) / 1000);
+        log.warn("Registration form submission refused: {}", ex.getMessage());
+
+        UserRegistrationDTO registrationDTO = new UserRegistrationDTO();
+        ServletRequestDataBinder binder = new ServletRequestDataBinder(registrationDTO);
+        binder.setConversionService(new DefaultFormattingConversionService());
+        binder.bind(request);
+        registrationDTO.setPassword(null);
+        registrationDTO.setConfirmPassword(null);
+
+        response.setStatus(rateLimited ? HttpStatus.TOO_MANY_REQUESTS.value() : HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retrySeconds));
+        model.addAttribute("userRegistrationDTO", registrationDTO);
+        model.addAttribute("errorMessage", ex.getMessage() + " (try again in " + retrySeconds + " s)");
+        return "registration-form";
+    }
+
     /**
      * Display registration success page
      * GET /registration-success
@@ -94,17 +168,63 @@ public class RegistrationController {
     }
 
     /**
-     * Display all users
-     * GET /users
+     * Display one page of users, filtered and sorted
+     * GET /users?page={page}&size={size}&sort={column}&dir={asc|desc}&q={text}&status={all|active|inactive}
      */
     @GetMapping("/users")
-    public String listUsers(Model model) {
-        log.info("Displaying all users");
-        List<UserResponseDTO> users = userService.getAllUsers();
-        model.addAttribute("users", users);
+    public String listUsers(@RequestParam(value = "page", defaultValue = "0") int page,
+                            @RequestParam(value = "size", defaultValue = "25") int size,
+                            @RequestParam(value = "sort", defaultValue = "id") String sort,
+                            @RequestParam(value = "dir", defaultValue = "desc") String dir,
+                            @RequestParam(value = "q", defaultValue = "") String q,
+                            @RequestParam(value = "status", defaultValue = "all") String status,
+                            Model model) {
+        log.info("Displaying users page {}", page);
+        if (!LISTING_SORTS.containsKey(sort)) {
+            sort = "id";
+        }
+        Sort.Direction direction = "asc".equalsIgnoreCase(dir) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        // The ID tie-breaker keeps rows from shifting between pages when sort values repeat
+        Sort order = Sort.by(direction, LISTING_SORTS.get(sort));
+        if (!"userId".equals(LISTING_SORTS.get(sort))) {
+            order = order.and(Sort.by(direction, "userId"));
+        }
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0),
+                Math.min(Math.max(size, 1), MAX_LISTING_SIZE), order);
+
+        Page<UserResponseDTO> users = userService.getUsersListingPage(q, toActiveFilter(status), pageRequest);
+        model.addAttribute("streaming", false);
+        model.addAttribute("page", users);
+        model.addAttribute("users", users.getContent());
+        model.addAttribute("sort", sort);
+        model.addAttribute("dir", direction == Sort.Direction.ASC ? "asc" : "desc");
+        model.addAttribute("q", q);
+        model.addAttribute("status", status);
+        model.addAttribute("columns", LISTING_COLUMNS);
+        model.addAttribute("sortKeys", LISTING_SORTS.keySet());
+        model.addAttribute("sizeOptions", LISTING_SIZE_OPTIONS);
+        model.addAttribute("firstPageLink", Math.max(0, users.getNumber() - PAGE_LINKS / 2));
+        model.addAttribute("lastPageLink", Math.min(users.getTotalPages() - 1, users.getNumber() + PAGE_LINKS / 2));
         return "user-list";
     }
 
+    /**
+     * Display every user on one page, streamed to the browser in chunks as rows are read
+     * GET /users?view=all&status={all|active|inactive}
+     */
+    @GetMapping(value = "/users", params = "view=all")
+    public void listAllUsers(@RequestParam(value = "status", defaultValue = "all") String status,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.info("Streaming all users");
+        Boolean active = toActiveFilter(status);
+        Map<String, Object> model = new HashMap<>();
+        model.put("streaming", true);
+        model.put("status", status);
+        long rows = chunkedTemplateWriter.write("user-list", model, "userRows", "users",
+                userChunks(active), request, response);
+        log.info("Streamed {} users", rows);
+    }
+
     /**
      * Display user details
      * GET /users/{id}
@@ -208,4 +328,58 @@ public class RegistrationController {
         
         return "redirect:/users";
     }
+
+    /**
+     * Read users in keyset pages, each in its own short transaction, so no connection
+     * is held while the browser receives rows
+     */
+    private Iterator<List<UserResponseDTO>> userChunks(Boolean active) {
+        return new Iterator<>() {
+            private String cursor;
+            private boolean exhausted;
+            private List<UserResponseDTO> next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && !exhausted) {
+                    CursorPageDTO<UserResponseDTO> page = userService.getUsersPage(
+                            cursor, STREAM_CHUNK_SIZE, UserSortOrder.ID, active);
+                    cursor = page.getNextCursor();
+                    exhausted = !page.isHasMore();
+                    if (!page.getItems().isEmpty()) {
+                        next = page.getItems();
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public List<UserResponseDTO> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                List<UserResponseDTO> chunk = next;
+                next = null;
+                return chunk;
+            }
+        };
+    }
+
+    private static Boolean toActiveFilter(String status) {
+        if ("active".equalsIgnoreCase(status)) {
+            return Boolean.TRUE;
+        }
+        if ("inactive".equalsIgnoreCase(status)) {
+            return Boolean.FALSE;
+        }
+        return null;
+    }
+
+    private static Map<String, String> columns(String... keysAndLabels) {
+        Map<String, String> columns = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndLabels.length; i += 2) {
+            columns.put(keysAndLabels[i], keysAndLabels[i + 1]);
+        }
+        return Collections.unmodifiableMap(columns);
+    }
 }
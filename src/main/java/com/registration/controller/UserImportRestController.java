@@ -0,0 +1,79 @@
+package com.registration.controller;
+
+import com.registration.dto.ImportJobDTO;
+import com.registration.service.UserImportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.net.URI;
+
+/**
+ * REST Controller for bulk user import from CSV files
+ * Imports run in the background; clients poll the job for progress
+ */
+@RestController
+@RequestMapping("/api/users/import")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class UserImportRestController {
+
+    private final UserImportService userImportService;
+
+    /**
+     * Upload a CSV file of users for import
+     * The header row names the columns, e.g. firstName,lastName,username,email,password,
+     * phoneNumber,dateOfBirth,gender[,address,city,state,postalCode,country,confirmPassword]
+     * POST /api/users/import (multipart, part "file")
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportJobDTO> importUsers(@RequestParam("file") MultipartFile file) {
+        log.info("REST API: Importing users from {}", file.getOriginalFilename());
+        ImportJobDTO job = userImportService.submit(file);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/users/import/" + job.getJobId()))
+                .body(job);
+    }
+
+    /**
+     * Get the progress of an import
+     * GET /api/users/import/{jobId}
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ImportJobDTO> getImport(@PathVariable("jobId") String jobId) {
+        return userImportService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Download the rows an import rejected, as CSV of row, status and message
+     * GET /api/users/import/{jobId}/errors
+     */
+    @GetMapping(value = "/{jobId}/errors", produces = "text/csv")
+    public ResponseEntity<Resource> getImportErrors(@PathVariable("jobId") String jobId) {
+        return userImportService.getErrorReport(jobId)
+                .<ResponseEntity<Resource>>map(report -> ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType("text/csv"))
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + jobId + "-errors.csv\"")
+                        .body(new FileSystemResource(report)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Resume a failed import from its last checkpoint
+     * POST /api/users/import/{jobId}/resume
+     */
+    @PostMapping("/{jobId}/resume")
+    public ResponseEntity<ImportJobDTO> resumeImport(@PathVariable("jobId") String jobId) {
+        log.info("REST API: Resuming import {}", jobId);
+        return ResponseEntity.accepted().body(userImportService.resume(jobId));
+    }
+}
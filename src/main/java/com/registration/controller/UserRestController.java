@@ -1,17 +1,47 @@
 package com.registration.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.registration.codec.UserColumns;
+import com.registration.codec.UserColumnsWriter;
+import com.registration.dto.BatchRegistrationResultDTO;
+import com.registration.dto.CursorPageDTO;
+import com.registration.dto.RegistrationTicketDTO;
+import com.registration.dto.ResourceVersionDTO;
 import com.registration.dto.UserRegistrationDTO;
 import com.registration.dto.UserResponseDTO;
+import com.registration.dto.UserSortOrder;
+import com.registration.service.AsyncRegistrationService;
+import com.registration.service.UserChangeStream;
 import com.registration.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * REST Controller for User Registration and Management
@@ -25,62 +55,206 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class UserRestController {
 
+    /** Media type for newline-delimited JSON exports */
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    /** Rows written between explicit flushes of the export stream */
+    private static final int EXPORT_FLUSH_INTERVAL = 100;
+
     private final UserService userService;
+    private final AsyncRegistrationService asyncRegistrationService;
+    private final UserChangeStream userChangeStream;
+    private final ObjectMapper objectMapper;
 
     /**
      * Register a new user
      * POST /api/users/register
      */
     @PostMapping("/register")
-    public ResponseEntity<UserResponseDTO> registerUser(@Valid @RequestBody UserRegistrationDTO registrationDTO) {
+    public ResponseEntity<?> registerUser(@Valid @RequestBody UserRegistrationDTO registrationDTO) {
         log.info("REST API: Registering new user with email: {}", registrationDTO.getEmail());
+        if (asyncRegistrationService.isEnabled()) {
+            RegistrationTicketDTO ticket = asyncRegistrationService.submit(registrationDTO);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/users/register/tickets/" + ticket.getTicketId()))
+                    .body(ticket);
+        }
         UserResponseDTO response = userService.registerUser(registrationDTO);
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    /**
+     * Get the outcome of an asynchronous registration
+     * GET /api/users/register/tickets/{ticketId}
+     */
+    @GetMapping("/register/tickets/{ticketId}")
+    public ResponseEntity<RegistrationTicketDTO> getRegistrationTicket(@PathVariable("ticketId") String ticketId) {
+        return asyncRegistrationService.getTicket(ticketId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Register many users in one request
+     * Each item is validated and reported separately; valid items are inserted in JDBC batches
+     * POST /api/users/register/batch
+     */
+    @PostMapping("/register/batch")
+    public ResponseEntity<BatchRegistrationResultDTO> registerUsers(@RequestBody List<UserRegistrationDTO> registrationDTOs) {
+        log.info("REST API: Registering batch of {} users", registrationDTOs.size());
+        BatchRegistrationResultDTO response = userService.registerUsers(registrationDTOs);
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Get user by ID
+     * Answers If-None-Match and If-Modified-Since with 304 after probing only the user's version
      * GET /api/users/{id}
      */
     @GetMapping("/{id}")
-    public ResponseEntity<UserResponseDTO> getUserById(@PathVariable("id") Long userId) {
+    public ResponseEntity<UserResponseDTO> getUserById(@PathVariable("id") Long userId, WebRequest request) {
         log.info("REST API: Fetching user with ID: {}", userId);
+        Optional<ResourceVersionDTO> version = userService.getUserVersion(userId);
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (isNotModified(request, version.get())) {
+            return notModified(version.get());
+        }
+        // Validators come from the user actually returned, which may be newer than the probe
         return userService.getUserById(userId)
-                .map(ResponseEntity::ok)
+                .map(user -> withValidators(userService.versionOf(user)).body(user))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     /**
-     * Get all users
-     * GET /api/users
+     * Get all users, one keyset page at a time
+     * GET /api/users?limit={limit}&cursor={cursor}&sort={id|createdAt}
      */
     @GetMapping
-    public ResponseEntity<List<UserResponseDTO>> getAllUsers() {
-        log.info("REST API: Fetching all users");
-        List<UserResponseDTO> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<CursorPageDTO<UserResponseDTO>> getAllUsers(
+            @RequestParam(value = "limit", defaultValue = "50") int limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "sort", required = false) String sort,
+            WebRequest request) {
+        log.info("REST API: Fetching users page (limit {})", limit);
+        MediaType mediaType = negotiate(request.getHeader(HttpHeaders.ACCEPT), MediaType.APPLICATION_JSON);
+        ResourceVersionDTO version = representationVersion(userService.getUsersVersion(false), mediaType);
+        if (isNotModified(request, version)) {
+            return notModified(version);
+        }
+        CursorPageDTO<UserResponseDTO> page = userService.getUsersPage(cursor, limit, toSortOrder(sort), null);
+        return withValidators(version).contentType(mediaType).body(page);
     }
 
     /**
-     * Get active users
-     * GET /api/users/active
+     * Get active users, one keyset page at a time
+     * GET /api/users/active?limit={limit}&cursor={cursor}&sort={id|createdAt}
      */
     @GetMapping("/active")
-    public ResponseEntity<List<UserResponseDTO>> getActiveUsers() {
-        log.info("REST API: Fetching active users");
-        List<UserResponseDTO> users = userService.getActiveUsers();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<CursorPageDTO<UserResponseDTO>> getActiveUsers(
+            @RequestParam(value = "limit", defaultValue = "50") int limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "sort", required = false) String sort,
+            WebRequest request) {
+        log.info("REST API: Fetching active users page (limit {})", limit);
+        MediaType mediaType = negotiate(request.getHeader(HttpHeaders.ACCEPT), MediaType.APPLICATION_JSON);
+        ResourceVersionDTO version = representationVersion(userService.getUsersVersion(true), mediaType);
+        if (isNotModified(request, version)) {
+            return notModified(version);
+        }
+        CursorPageDTO<UserResponseDTO> page = userService.getUsersPage(cursor, limit, toSortOrder(sort), Boolean.TRUE);
+        return withValidators(version).contentType(mediaType).body(page);
+    }
+
+    /**
+     * Export all users as newline-delimited JSON, or in the binary user columns format
+     * when the client accepts it
+     * Rows are written as they are read, so memory use is independent of table size
+     * GET /api/users/export
+     */
+    @GetMapping(value = "/export", produces = {APPLICATION_NDJSON_VALUE, UserColumns.MEDIA_TYPE_VALUE})
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept, WebRequest request) {
+        log.info("REST API: Exporting all users");
+        MediaType mediaType = negotiate(accept, MediaType.parseMediaType(APPLICATION_NDJSON_VALUE));
+        ResourceVersionDTO version = representationVersion(userService.getUsersVersion(false), mediaType);
+        if (isNotModified(request, version)) {
+            return notModified(version);
+        }
+        if (UserColumns.MEDIA_TYPE.equals(mediaType)) {
+            return withValidators(version)
+                    .contentType(UserColumns.MEDIA_TYPE)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.columns\"")
+                    .body(this::exportUserColumns);
+        }
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                // Rows are separated by explicit newlines rather than Jackson's default space
+                generator.setRootValueSeparator(null);
+                long[] written = {0};
+                userService.exportUsers(user -> {
+                    try {
+                        writer.writeValue(generator, user);
+                        generator.writeRaw('\n');
+                        if (++written[0] % EXPORT_FLUSH_INTERVAL == 0) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return withValidators(version)
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.ndjson\"")
+                .body(body);
+    }
+
+    private void exportUserColumns(OutputStream outputStream) throws IOException {
+        UserColumnsWriter writer = new UserColumnsWriter(outputStream);
+        userService.exportUsers(user -> {
+            try {
+                writer.write(user);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.finish();
+    }
+
+    /**
+     * Stream committed user changes as Server-Sent Events, instead of polling the listings
+     * Each event's ID is its sequence number; a reconnecting client sends the last one back
+     * (EventSource does so in Last-Event-ID) to receive the changes it missed
+     * GET /api/users/changes
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(value = "lastEventId", required = false) String lastEventIdParam) {
+        log.debug("REST API: Opening change stream after {}", lastEventId != null ? lastEventId : lastEventIdParam);
+        return userChangeStream.subscribe(lastEventId != null ? lastEventId : lastEventIdParam);
     }
 
     /**
-     * Search users by name
-     * GET /api/users/search?term={searchTerm}
+     * Search users by name, username or email, best match first
+     * GET /api/users/search?term={searchTerm}&limit={limit}
      */
     @GetMapping("/search")
-    public ResponseEntity<List<UserResponseDTO>> searchUsers(@RequestParam("term") String searchTerm) {
+    public ResponseEntity<List<UserResponseDTO>> searchUsers(@RequestParam("term") String searchTerm,
+                                                             @RequestParam(value = "limit", defaultValue = "20") int limit,
+                                                             WebRequest request) {
         log.info("REST API: Searching users with term: {}", searchTerm);
-        List<UserResponseDTO> users = userService.searchUsers(searchTerm);
-        return ResponseEntity.ok(users);
+        MediaType mediaType = negotiate(request.getHeader(HttpHeaders.ACCEPT), MediaType.APPLICATION_JSON);
+        ResourceVersionDTO version = representationVersion(userService.getUsersVersion(false), mediaType);
+        if (isNotModified(request, version)) {
+            return notModified(version);
+        }
+        List<UserResponseDTO> users = userService.searchUsers(searchTerm, limit);
+        return withValidators(version).contentType(mediaType).body(users);
     }
 
     /**
@@ -137,4 +311,90 @@ public class UserRestController {
         boolean exists = userService.isUsernameExists(username);
         return ResponseEntity.ok(exists);
     }
+
+    /**
+     * Check the request's conditional headers against a version
+     * Evaluated without the response, so the validators are only ever set by {@link #withValidators}
+     * A version without lastModified ignores If-Modified-Since
+     * @return true if the handler should answer with {@link #notModified} instead of a body
+     */
+    private static boolean isNotModified(WebRequest request, ResourceVersionDTO version) {
+        ServletWebRequest servletRequest =
+                new ServletWebRequest(((NativeWebRequest) request).getNativeRequest(HttpServletRequest.class));
+        return version.getLastModified() == null
+                ? servletRequest.checkNotModified(version.getTag())
+                : servletRequest.checkNotModified(version.getTag(), version.getLastModified().toEpochMilli());
+    }
+
+    /**
+     * 304 carrying the version's validators
+     */
+    private static <T> ResponseEntity<T> notModified(ResourceVersionDTO version) {
+        return withValidators(HttpStatus.NOT_MODIFIED, version).build();
+    }
+
+    /**
+     * Start a 200 response carrying a version's validators
+     * Clients may store the response but must revalidate before reusing it
+     */
+    private static ResponseEntity.BodyBuilder withValidators(ResourceVersionDTO version) {
+        return withValidators(HttpStatus.OK, version);
+    }
+
+    private static ResponseEntity.BodyBuilder withValidators(HttpStatus status, ResourceVersionDTO version) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(status)
+                .eTag(version.getTag())
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT);
+        if (version.getLastModified() != null) {
+            builder.lastModified(version.getLastModified());
+        }
+        return builder;
+    }
+
+    /**
+     * Pick the representation of a user listing: user columns when the client prefers them,
+     * otherwise the default format, which a wildcard also selects
+     * @param accept Accept header, or null
+     * @param defaultType JSON format of the endpoint
+     */
+    private static MediaType negotiate(String accept, MediaType defaultType) {
+        if (accept == null) {
+            return defaultType;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return defaultType;
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            if (type.isCompatibleWith(defaultType)) {
+                return defaultType;
+            }
+            if (type.isCompatibleWith(UserColumns.MEDIA_TYPE)) {
+                return UserColumns.MEDIA_TYPE;
+            }
+        }
+        return defaultType;
+    }
+
+    /**
+     * Version of one representation of a resource: the representations vary by Accept, so
+     * each gets its own strong tag
+     */
+    private static ResourceVersionDTO representationVersion(ResourceVersionDTO version, MediaType mediaType) {
+        return ResourceVersionDTO.builder()
+                .tag(version.getTag() + "-" + mediaType.getSubtype())
+                .lastModified(version.getLastModified())
+                .build();
+    }
+
+    private UserSortOrder toSortOrder(String sort) {
+        return sort == null ? null : UserSortOrder.fromParameter(sort);
+    }
 }
@@ -0,0 +1,111 @@
+package com.registration.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stand-in for replication between embedded H2 databases, for trying read replicas locally
+ * Each replica links the primary's users table and copies it in full every interval, so
+ * replica reads trail writes by up to that long, like an asynchronous replica. It starts
+ * once all singletons exist, after Hibernate has created the primary schema and before
+ * anything reads at startup. Not for real databases.
+ */
+@Slf4j
+public class H2ReplicationSimulator implements SmartInitializingSingleton, AutoCloseable {
+
+    private final Database primary;
+    private final List<Database> replicaDatabases;
+    private final Duration lag;
+    private final List<Connection> replicas = new ArrayList<>();
+    private ScheduledExecutorService replicator;
+
+    /**
+     * @param primary Primary H2 database, reachable by URL from this JVM
+     * @param replicaDatabases Replica H2 databases to copy into
+     * @param lag Interval between copies
+     */
+    public H2ReplicationSimulator(Database primary, List<Database> replicaDatabases, Duration lag) {
+        this.primary = primary;
+        this.replicaDatabases = replicaDatabases;
+        this.lag = lag;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            for (Database replica : replicaDatabases) {
+                Connection connection = DriverManager.getConnection(replica.url(),
+                        nullToEmpty(replica.username()), nullToEmpty(replica.password()));
+                replicas.add(connection);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("DROP TABLE IF EXISTS users");
+                    statement.execute("DROP TABLE IF EXISTS primary_users");
+                    statement.execute("CREATE LINKED TABLE primary_users('org.h2.Driver', " + literal(primary.url())
+                            + ", " + literal(primary.username()) + ", " + literal(primary.password())
+                            + ", 'PUBLIC', 'USERS') READONLY");
+                    statement.execute("CREATE TABLE users AS SELECT * FROM primary_users WITH NO DATA");
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot set up simulated H2 replication", e);
+        }
+        copy();
+        replicator = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "h2-replication");
+            thread.setDaemon(true);
+            return thread;
+        });
+        replicator.scheduleWithFixedDelay(this::copy, lag.toMillis(), lag.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Copying users to {} H2 replicas every {}", replicas.size(), lag);
+    }
+
+    @Override
+    public void close() {
+        if (replicator != null) {
+            replicator.shutdownNow();
+        }
+        for (Connection connection : replicas) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                log.debug("Closing replica connection failed", e);
+            }
+        }
+    }
+
+    private void copy() {
+        for (Connection connection : replicas) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("MERGE INTO users KEY(user_id) SELECT * FROM primary_users");
+                statement.execute("DELETE FROM users WHERE user_id NOT IN (SELECT user_id FROM primary_users)");
+            } catch (SQLException e) {
+                log.warn("Simulated replication failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * JDBC coordinates of an H2 database
+     */
+    public record Database(String url, String username, String password) {
+    }
+
+    private static String literal(String value) {
+        return "'" + nullToEmpty(value).replace("'", "''") + "'";
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
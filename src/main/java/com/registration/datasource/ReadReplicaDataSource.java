@@ -0,0 +1,180 @@
+package com.registration.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DataSource for read-only work that spreads connections over healthy replicas
+ * Installed as the read-only target of a LazyConnectionDataSourceProxy, so it serves
+ * {@code @Transactional(readOnly = true)} calls. Each connection comes from the healthy
+ * replica with the fewest active connections. A replica that fails to hand out a connection
+ * is skipped until the background health check finds it valid again. The primary serves
+ * the read instead when no replica is healthy, and while the client is inside its
+ * read-your-writes window.
+ */
+@Slf4j
+public class ReadReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final List<Replica> replicas;
+    private final DataSource primary;
+    private final ReadYourWritesTracker readYourWrites;
+    private final ScheduledExecutorService healthChecker;
+    private final Counter primaryReadsAfterWrite;
+    private final Counter primaryReadsWithoutReplica;
+
+    /**
+     * @param pools Connection pools of the replicas, named after them
+     * @param primary Primary DataSource, used when no replica may serve the read
+     * @param readYourWrites Tracker of clients that wrote recently
+     * @param healthCheckInterval How often every replica is probed
+     * @param meterRegistry Registry for the routing metrics
+     */
+    public ReadReplicaDataSource(List<HikariDataSource> pools, DataSource primary,
+                                 ReadYourWritesTracker readYourWrites, Duration healthCheckInterval,
+                                 MeterRegistry meterRegistry) {
+        this.replicas = pools.stream().map(pool -> new Replica(pool, meterRegistry)).toList();
+        this.primary = primary;
+        this.readYourWrites = readYourWrites;
+        this.primaryReadsAfterWrite = primaryReads("read_your_writes", meterRegistry);
+        this.primaryReadsWithoutReplica = primaryReads("no_replica", meterRegistry);
+
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, 0, healthCheckInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (readYourWrites.isWithinWindow()) {
+            primaryReadsAfterWrite.increment();
+            return primary.getConnection();
+        }
+        Replica replica;
+        while ((replica = choose()) != null) {
+            try {
+                Connection connection = replica.pool.getConnection();
+                replica.reads.increment();
+                return connection;
+            } catch (SQLException e) {
+                replica.markDown(e);
+            }
+        }
+        primaryReadsWithoutReplica.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLException("Replica credentials are configured per replica");
+    }
+
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    /**
+     * Healthy replica with the fewest active connections, scanning from a random start so
+     * that ties are spread evenly
+     * @return The replica, or null when none is healthy
+     */
+    private Replica choose() {
+        int size = replicas.size();
+        int start = ThreadLocalRandom.current().nextInt(size);
+        Replica best = null;
+        int bestActive = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.healthy) {
+                continue;
+            }
+            int active = replica.activeConnections();
+            if (active < bestActive) {
+                best = replica;
+                bestActive = active;
+            }
+        }
+        return best;
+    }
+
+    private void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.pool.getConnection()) {
+                if (connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    replica.markUp();
+                } else {
+                    replica.markDown(new SQLException("Connection is not valid"));
+                }
+            } catch (SQLException | RuntimeException e) {
+                replica.markDown(e);
+            }
+        }
+    }
+
+    private static Counter primaryReads(String reason, MeterRegistry meterRegistry) {
+        return Counter.builder("registration.datasource.primary.reads")
+                .description("Read-only connections served by the primary instead of a replica")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static final class Replica {
+
+        private final HikariDataSource pool;
+        private final Counter reads;
+        private volatile boolean healthy;
+
+        private Replica(HikariDataSource pool, MeterRegistry meterRegistry) {
+            this.pool = pool;
+            this.reads = Counter.builder("registration.datasource.replica.reads")
+                    .description("Read-only connections served by a replica")
+                    .tag("replica", pool.getPoolName())
+                    .register(meterRegistry);
+            Gauge.builder("registration.datasource.replica.healthy", this, replica -> replica.healthy ? 1 : 0)
+                    .description("Whether a replica is taking reads")
+                    .tag("replica", pool.getPoolName())
+                    .register(meterRegistry);
+        }
+
+        private int activeConnections() {
+            HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+            return mxBean == null ? 0 : mxBean.getActiveConnections();
+        }
+
+        private void markUp() {
+            if (!healthy) {
+                healthy = true;
+                log.info("Replica {} is taking reads", pool.getPoolName());
+            }
+        }
+
+        private void markDown(Exception cause) {
+            if (healthy) {
+                healthy = false;
+                log.warn("Replica {} is unavailable, reads move elsewhere: {}", pool.getPoolName(), cause.getMessage());
+            }
+        }
+    }
+}
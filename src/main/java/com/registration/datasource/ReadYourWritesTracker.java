@@ -0,0 +1,54 @@
+package com.registration.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.registration.event.UserChangedEvent;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Remembers which clients wrote recently, so their reads can stay on the primary
+ * A replica may not have applied a write yet when the client that made it reads it back.
+ * A client is marked when its write commits and stays marked for the window; at most
+ * maxClients are kept, and forgetting one only sends its reads to a replica early.
+ */
+public class ReadYourWritesTracker {
+
+    private final Cache<String, Boolean> recentWriters;
+    private final Supplier<String> currentClient;
+
+    /**
+     * @param window How long a client's reads stay on the primary after it writes
+     * @param maxClients Maximum number of clients remembered
+     * @param currentClient Key of the client the current thread is serving, or null
+     */
+    public ReadYourWritesTracker(Duration window, long maxClients, Supplier<String> currentClient) {
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterWrite(window)
+                .build();
+        this.currentClient = currentClient;
+    }
+
+    /**
+     * Start the window for the client whose change just committed
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onUserChanged(UserChangedEvent event) {
+        String client = currentClient.get();
+        if (client != null) {
+            recentWriters.put(client, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * @return true if the current client wrote within the window
+     */
+    public boolean isWithinWindow() {
+        String client = currentClient.get();
+        return client != null && recentWriters.getIfPresent(client) != null;
+    }
+}
@@ -0,0 +1,43 @@
+package com.registration.datasource;
+
+import com.registration.util.ServerTiming;
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Adds JDBC statement execution time to the Server-Timing of the current request
+ * Registered through hibernate.session.events.auto, so Hibernate creates one per
+ * session; outside a timed request each callback is a single ThreadLocal read.
+ */
+public class ServerTimingSessionListener extends BaseSessionEventListener {
+
+    private static final String SQL = "sql";
+
+    private long executeStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStart = ServerTiming.isActive() ? System.nanoTime() : 0;
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        if (executeStart != 0) {
+            ServerTiming.record(SQL, System.nanoTime() - executeStart);
+            executeStart = 0;
+        }
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = ServerTiming.isActive() ? System.nanoTime() : 0;
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        if (batchStart != 0) {
+            ServerTiming.record(SQL, System.nanoTime() - batchStart);
+            batchStart = 0;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.registration.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Shard that the current thread's database work goes to, in sharding mode
+ * Read by {@link ShardRoutingDataSource} when a connection is fetched and by
+ * {@link ShardedSequenceGenerator} when it assigns an ID. A unit of work stays on one
+ * shard: a transaction's connection is bound to the shard selected when it began.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * @return Shard selected on this thread, or null outside sharded work
+     */
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Run work against a shard
+     * @param shard Shard index
+     * @param work Work to run
+     * @return Result of the work
+     * @throws IllegalStateException if this thread is already working on another shard
+     */
+    public static <T> T callOn(int shard, Supplier<T> work) {
+        Integer previous = CURRENT.get();
+        if (previous != null && previous != shard) {
+            throw new IllegalStateException("Cannot switch to shard " + shard + " while working on shard " + previous);
+        }
+        CURRENT.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            }
+        }
+    }
+}
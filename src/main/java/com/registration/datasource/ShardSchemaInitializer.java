@@ -0,0 +1,76 @@
+package com.registration.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Applies the schema to every shard, as Hibernate does for the first one
+ * Hibernate runs spring.jpa.hibernate.ddl-auto once, on the connection it gets at bootstrap,
+ * which is shard 0. Registered as an integrator, this class keeps the mapping metadata and,
+ * once all singletons exist, runs the same schema action on each other shard. It then runs
+ * the extra statements (idempotent DDL outside the JPA model) on every shard. Schema drops
+ * for create-drop are only registered for shard 0.
+ */
+@Slf4j
+public class ShardSchemaInitializer implements Integrator, SmartInitializingSingleton {
+
+    private final int shardCount;
+    private final JdbcTemplate jdbcTemplate;
+    private final List<String> extraStatements;
+
+    private volatile Metadata metadata;
+    private volatile SessionFactoryImplementor sessionFactory;
+
+    /**
+     * @param shardCount Number of shards
+     * @param dataSource Shard-routing DataSource
+     * @param extraStatements Statements to run on every shard
+     */
+    public ShardSchemaInitializer(int shardCount, DataSource dataSource, List<String> extraStatements) {
+        this.shardCount = shardCount;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.extraStatements = extraStatements;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                          SessionFactoryImplementor sessionFactory) {
+        this.metadata = metadata;
+        this.sessionFactory = sessionFactory;
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        this.metadata = null;
+        this.sessionFactory = null;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (metadata == null) {
+            throw new IllegalStateException("Hibernate did not register the shard schema initializer");
+        }
+        for (int shard = 0; shard < shardCount; shard++) {
+            boolean bootstrapped = shard == 0;
+            ShardContext.callOn(shard, () -> {
+                if (!bootstrapped) {
+                    SchemaManagementToolCoordinator.process(metadata, sessionFactory.getServiceRegistry(),
+                            sessionFactory.getProperties(), action -> { });
+                }
+                extraStatements.forEach(jdbcTemplate::execute);
+                return null;
+            });
+        }
+        log.info("Schema applied to {} shards", shardCount);
+    }
+}
@@ -0,0 +1,25 @@
+package com.registration.datasource;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Pooled sequence ID that carries its shard in sharding mode
+ * Outside sharding mode it behaves like {@code @SequenceGenerator} with the same settings.
+ * @see ShardedSequenceGenerator
+ */
+@IdGeneratorType(ShardedSequenceGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface ShardedSequence {
+
+    /** Database sequence, or single-row table where the database has no sequences */
+    String sequenceName();
+
+    /** Number of IDs taken from the sequence at a time */
+    int allocationSize() default 50;
+}
@@ -0,0 +1,75 @@
+package com.registration.datasource;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.OptimizableGenerator;
+import org.hibernate.id.enhanced.Optimizer;
+import org.hibernate.id.enhanced.OptimizerDescriptor;
+import org.hibernate.id.enhanced.OptimizerFactory;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sequence-style ID generator that encodes the shard in every ID it assigns on a shard
+ * On a shard (see {@link ShardContext}), the ID is {@code sequenceValue * MAX_SHARDS + shard}.
+ * The value comes from that shard's own sequence, so IDs are unique across shards and
+ * {@code id % MAX_SHARDS} names the shard holding the row. Each shard keeps its own block of
+ * pooled values, because a block allocated by one shard's sequence is only reserved there.
+ * Outside a shard this is the plain sequence generator.
+ */
+public class ShardedSequenceGenerator extends SequenceStyleGenerator {
+
+    /** Most shards an ID can address */
+    public static final int MAX_SHARDS = 1000;
+
+    private final ShardedSequence config;
+    private final Map<Integer, Optimizer> shardOptimizers = new ConcurrentHashMap<>();
+
+    private OptimizerDescriptor optimizerDescriptor;
+    private int incrementSize;
+    private int initialValue;
+
+    public ShardedSequenceGenerator(ShardedSequence config) {
+        this.config = config;
+    }
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        Properties settings = new Properties();
+        settings.putAll(parameters);
+        settings.setProperty(SEQUENCE_PARAM, config.sequenceName());
+        settings.setProperty(OptimizableGenerator.INCREMENT_PARAM, String.valueOf(config.allocationSize()));
+        initialValue = ConfigurationHelper.getInt(OptimizableGenerator.INITIAL_PARAM, settings, -1);
+        super.configure(type, settings, serviceRegistry);
+    }
+
+    @Override
+    protected OptimizerDescriptor determineOptimizationStrategy(Properties params, int incrementSize) {
+        optimizerDescriptor = super.determineOptimizationStrategy(params, incrementSize);
+        return optimizerDescriptor;
+    }
+
+    @Override
+    protected int determineAdjustedIncrementSize(OptimizerDescriptor optimizationStrategy, int incrementSize) {
+        this.incrementSize = super.determineAdjustedIncrementSize(optimizationStrategy, incrementSize);
+        return this.incrementSize;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        Integer shard = ShardContext.current();
+        if (shard == null) {
+            return super.generate(session, object);
+        }
+        Optimizer optimizer = shardOptimizers.computeIfAbsent(shard, s -> OptimizerFactory.buildOptimizer(
+                optimizerDescriptor, getIdentifierType().getReturnedClass(), incrementSize, initialValue));
+        long value = ((Number) optimizer.generate(getDatabaseStructure().buildCallback(session))).longValue();
+        return value * MAX_SHARDS + shard;
+    }
+}
@@ -0,0 +1,22 @@
+package com.registration.dto;
+
+import lombok.*;
+
+import java.util.Map;
+
+/**
+ * Data Transfer Object for the result of one item in a batch registration
+ * The index refers to the item's position in the request array
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchItemResultDTO {
+
+    private int index;
+    private BatchItemStatus status;
+    private UserResponseDTO user;
+    private String message;
+    private Map<String, String> validationErrors;
+}
@@ -0,0 +1,19 @@
+package com.registration.dto;
+
+/**
+ * Outcome of a single item in a batch registration request
+ */
+public enum BatchItemStatus {
+
+    /** The user was registered */
+    CREATED,
+
+    /** The item failed bean validation */
+    INVALID,
+
+    /** The email or username is already registered, or repeated within the batch */
+    DUPLICATE,
+
+    /** The item was valid but the write of its shard failed; it was not registered */
+    FAILED
+}
@@ -0,0 +1,21 @@
+package com.registration.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for the response of a batch registration
+ * Contains one result per submitted item, in request order
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchRegistrationResultDTO {
+
+    private int total;
+    private int created;
+    private int failed;
+    private List<BatchItemResultDTO> results;
+}
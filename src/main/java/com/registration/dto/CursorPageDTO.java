@@ -0,0 +1,21 @@
+package com.registration.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for one page of a keyset (cursor) paginated listing
+ * The nextCursor is opaque to clients and is null on the last page
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPageDTO<T> {
+
+    private List<T> items;
+    private int limit;
+    private String nextCursor;
+    private boolean hasMore;
+}
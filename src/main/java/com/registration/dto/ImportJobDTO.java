@@ -0,0 +1,28 @@
+package com.registration.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object for the progress of a CSV import job
+ * Row counts cover data rows only; rowsProcessed is the number of rows whose outcome
+ * is committed, which is where a resumed job continues
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class ImportJobDTO {
+
+    private String jobId;
+    private ImportJobStatus status;
+    private String fileName;
+    private long rowsProcessed;
+    private long created;
+    private long failed;
+    private String message;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+}
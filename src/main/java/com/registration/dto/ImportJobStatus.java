@@ -0,0 +1,19 @@
+package com.registration.dto;
+
+/**
+ * State of a CSV import job
+ */
+public enum ImportJobStatus {
+
+    /** Uploaded and waiting for the import worker */
+    QUEUED,
+
+    /** Rows are being validated and inserted */
+    RUNNING,
+
+    /** Every row was processed; failed rows are in the error report */
+    COMPLETED,
+
+    /** Stopped before the end of the file; the message says why and the job can be resumed */
+    FAILED
+}
@@ -0,0 +1,23 @@
+package com.registration.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object for an asynchronous registration ticket
+ * Returned with 202 Accepted and from the ticket status endpoint
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RegistrationTicketDTO {
+
+    private String ticketId;
+    private TicketStatus status;
+    private UserResponseDTO user;
+    private String message;
+    private LocalDateTime submittedAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,21 @@
+package com.registration.dto;
+
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object for the version of a resource, used to answer conditional requests
+ * The tag changes whenever the resource's representation changes; lastModified is the
+ * time of its latest change (the epoch for a resource that has none), or null when the
+ * resource has no change time that only moves forward
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResourceVersionDTO {
+
+    private String tag;
+    private Instant lastModified;
+}
@@ -0,0 +1,16 @@
+package com.registration.dto;
+
+/**
+ * State of an asynchronous registration ticket
+ */
+public enum TicketStatus {
+
+    /** Accepted and waiting to be hashed and written */
+    PENDING,
+
+    /** The user was registered */
+    COMPLETED,
+
+    /** The registration was not written; the message says why */
+    FAILED
+}
@@ -0,0 +1,26 @@
+package com.registration.dto;
+
+import com.registration.event.UserChangedEvent;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object for one committed user change on the change stream
+ * The sequence is also the event's ID, which a reconnecting client sends back to resume
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserChangeDTO {
+
+    private long sequence;
+    private UserChangedEvent.ChangeType type;
+    private Long userId;
+
+    /** User after the change (null for deletions) */
+    private UserResponseDTO user;
+
+    private LocalDateTime committedAt;
+}
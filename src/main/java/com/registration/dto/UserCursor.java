@@ -0,0 +1,81 @@
+package com.registration.dto;
+
+import com.registration.exception.InvalidRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last row returned by a keyset paginated user listing
+ * Serialized as an opaque URL-safe token so the format can change without breaking clients
+ */
+@Getter
+@AllArgsConstructor
+public class UserCursor {
+
+    private static final String VERSION = "v2";
+    /** Earlier format, whose flag meant active users only (true) or all users (false) */
+    private static final String ACTIVE_ONLY_VERSION = "v1";
+    private static final String SEPARATOR = "|";
+
+    private final UserSortOrder sortOrder;
+    /** Active flag the listing matches, or null for all users */
+    private final Boolean active;
+    private final Long lastUserId;
+    private final LocalDateTime lastCreatedAt;
+
+    /**
+     * Encode this cursor as an opaque token
+     * @return URL-safe token
+     */
+    public String encode() {
+        String raw = String.join(SEPARATOR,
+                VERSION,
+                sortOrder.name(),
+                active == null ? "" : active.toString(),
+                Long.toString(lastUserId),
+                lastCreatedAt == null ? "" : lastCreatedAt.toString());
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token previously produced by {@link #encode()}
+     * @param token Opaque cursor token
+     * @return Decoded cursor
+     */
+    public static UserCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 5 || !(VERSION.equals(parts[0]) || ACTIVE_ONLY_VERSION.equals(parts[0]))) {
+                throw new InvalidRequestException("Invalid cursor: " + token);
+            }
+            UserSortOrder sortOrder = UserSortOrder.valueOf(parts[1]);
+            LocalDateTime lastCreatedAt = parts[4].isEmpty() ? null : LocalDateTime.parse(parts[4]);
+            if (sortOrder == UserSortOrder.CREATED_AT && lastCreatedAt == null) {
+                throw new InvalidRequestException("Invalid cursor: " + token);
+            }
+            Boolean active = VERSION.equals(parts[0])
+                    ? parseActive(parts[2])
+                    : (Boolean.parseBoolean(parts[2]) ? Boolean.TRUE : null);
+            return new UserCursor(sortOrder, active, Long.parseLong(parts[3]), lastCreatedAt);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidRequestException("Invalid cursor: " + token, e);
+        }
+    }
+
+    private static Boolean parseActive(String value) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        if (!"true".equals(value) && !"false".equals(value)) {
+            throw new IllegalArgumentException("Invalid active flag: " + value);
+        }
+        return Boolean.valueOf(value);
+    }
+}
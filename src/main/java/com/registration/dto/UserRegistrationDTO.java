@@ -51,13 +51,19 @@ public class UserRegistrationDTO {
     @Pattern(regexp = "^(Male|Female|Other)$", message = "Gender must be Male, Female, or Other")
     private String gender;
 
+    @Size(max = 200, message = "Address cannot exceed 200 characters")
     private String address;
+
+    @Size(max = 50, message = "City cannot exceed 50 characters")
     private String city;
+
+    @Size(max = 50, message = "State cannot exceed 50 characters")
     private String state;
     
     @Pattern(regexp = "^[0-9]{6}$", message = "Postal code must be exactly 6 digits")
     private String postalCode;
     
+    @Size(max = 50, message = "Country cannot exceed 50 characters")
     private String country;
 
     @AssertTrue(message = "Passwords do not match")
@@ -0,0 +1,40 @@
+package com.registration.dto;
+
+import com.registration.exception.InvalidRequestException;
+
+/**
+ * Stable orderings supported by the keyset paginated user listings
+ * Every ordering ends with user_id so that ties never reorder between pages
+ */
+public enum UserSortOrder {
+
+    /** Ascending by user_id (primary key) */
+    ID("id"),
+
+    /** Ascending by created_at, then user_id (uses idx_created_at) */
+    CREATED_AT("createdAt");
+
+    private final String parameterValue;
+
+    UserSortOrder(String parameterValue) {
+        this.parameterValue = parameterValue;
+    }
+
+    public String getParameterValue() {
+        return parameterValue;
+    }
+
+    /**
+     * Resolve a sort order from its request parameter value
+     * @param value Request parameter value
+     * @return Matching sort order
+     */
+    public static UserSortOrder fromParameter(String value) {
+        for (UserSortOrder order : values()) {
+            if (order.parameterValue.equalsIgnoreCase(value)) {
+                return order;
+            }
+        }
+        throw new InvalidRequestException("Unsupported sort order: " + value);
+    }
+}
@@ -1,5 +1,6 @@
 package com.registration.entity;
 
+import com.registration.datasource.ShardedSequence;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
@@ -21,7 +22,9 @@ import java.time.LocalDateTime;
        },
        indexes = {
            @Index(name = "idx_email", columnList = "email"),
-           @Index(name = "idx_username", columnList = "username")
+           @Index(name = "idx_username", columnList = "username"),
+           @Index(name = "idx_created_at", columnList = "created_at"),
+           @Index(name = "idx_updated_at", columnList = "updated_at")
        })
 @Data
 @NoArgsConstructor
@@ -30,8 +33,13 @@ import java.time.LocalDateTime;
 @ToString(exclude = "password")
 public class User {
 
+    /**
+     * Pooled sequence ids let Hibernate batch INSERTs (IDENTITY disables JDBC batching).
+     * MySQL has no sequences, so Hibernate backs users_seq with a single-row table there.
+     * In sharding mode each shard has its own users_seq and the id also encodes the shard.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @ShardedSequence(sequenceName = "users_seq", allocationSize = 50)
     @Column(name = "user_id")
     private Long userId;
 
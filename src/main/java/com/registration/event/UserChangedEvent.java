@@ -0,0 +1,55 @@
+package com.registration.event;
+
+import com.registration.dto.UserResponseDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Application event published by the user service for every user mutation
+ * Published inside the write transaction; listeners that must only see committed
+ * data should use a transactional event listener
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class UserChangedEvent {
+
+    /**
+     * Kind of mutation
+     */
+    public enum ChangeType {
+        REGISTERED,
+        UPDATED,
+        DEACTIVATED,
+        DELETED
+    }
+
+    private final ChangeType type;
+    private final Long userId;
+
+    /** Email before the change (null for registrations) */
+    private final String previousEmail;
+
+    /** Username before the change (null for registrations) */
+    private final String previousUsername;
+
+    /** User after the change (null for deletions) */
+    private final UserResponseDTO user;
+
+    public static UserChangedEvent registered(UserResponseDTO user) {
+        return new UserChangedEvent(ChangeType.REGISTERED, user.getUserId(), null, null, user);
+    }
+
+    public static UserChangedEvent updated(String previousEmail, String previousUsername, UserResponseDTO user) {
+        return new UserChangedEvent(ChangeType.UPDATED, user.getUserId(), previousEmail, previousUsername, user);
+    }
+
+    public static UserChangedEvent deactivated(UserResponseDTO user) {
+        return new UserChangedEvent(ChangeType.DEACTIVATED, user.getUserId(), user.getEmail(), user.getUsername(), user);
+    }
+
+    public static UserChangedEvent deleted(Long userId, String previousEmail, String previousUsername) {
+        return new UserChangedEvent(ChangeType.DELETED, userId, previousEmail, previousUsername, null);
+    }
+}
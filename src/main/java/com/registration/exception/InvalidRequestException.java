@@ -0,0 +1,15 @@
+package com.registration.exception;
+
+/**
+ * Custom exception for malformed or out-of-range request parameters
+ */
+public class InvalidRequestException extends RuntimeException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+
+    public InvalidRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
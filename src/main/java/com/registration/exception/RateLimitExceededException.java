@@ -0,0 +1,21 @@
+package com.registration.exception;
+
+import java.time.Duration;
+
+/**
+ * Custom exception for requests refused because the client exceeded its rate limit
+ * Clients should retry after the given delay
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
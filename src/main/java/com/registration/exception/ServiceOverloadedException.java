@@ -0,0 +1,32 @@
+package com.registration.exception;
+
+import java.time.Duration;
+
+/**
+ * Custom exception for requests rejected because a bounded resource is saturated
+ * Clients should retry after a short delay
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final Duration retryAfter;
+
+    public ServiceOverloadedException(String message) {
+        this(message, DEFAULT_RETRY_AFTER);
+    }
+
+    public ServiceOverloadedException(String message, Throwable cause) {
+        super(message, cause);
+        this.retryAfter = DEFAULT_RETRY_AFTER;
+    }
+
+    public ServiceOverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,78 @@
+package com.registration.mapper;
+
+import com.registration.dto.UserRegistrationDTO;
+import com.registration.dto.UserResponseDTO;
+import com.registration.entity.User;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hand-written mappings between users and their DTOs
+ * Plain field copies replace reflective mapping on every read and write path.
+ * Passwords are never copied: the service stores the BCrypt hash itself, and
+ * confirmPassword only exists for validation.
+ */
+@Component
+public class UserMapper {
+
+    /**
+     * Map a registration to a new, unsaved user (without password)
+     * @param dto Registration data
+     * @return New user entity
+     */
+    public User toEntity(UserRegistrationDTO dto) {
+        User user = new User();
+        copyRegistration(dto, user);
+        return user;
+    }
+
+    /**
+     * Overwrite a user's profile fields with a registration, nulls included
+     * ID, password, status flags and timestamps are left untouched
+     * @param dto Registration data
+     * @param user Existing user entity
+     */
+    public void updateEntity(UserRegistrationDTO dto, User user) {
+        copyRegistration(dto, user);
+    }
+
+    /**
+     * Map a user to its API representation
+     * @param user User entity
+     * @return Response DTO
+     */
+    public UserResponseDTO toResponse(User user) {
+        return new UserResponseDTO(
+                user.getUserId(),
+                user.getFirstName(),
+                user.getLastName(),
+                user.getUsername(),
+                user.getEmail(),
+                user.getPhoneNumber(),
+                user.getDateOfBirth(),
+                user.getGender(),
+                user.getAddress(),
+                user.getCity(),
+                user.getState(),
+                user.getPostalCode(),
+                user.getCountry(),
+                user.getIsActive(),
+                user.getEmailVerified(),
+                user.getCreatedAt(),
+                user.getUpdatedAt());
+    }
+
+    private static void copyRegistration(UserRegistrationDTO dto, User user) {
+        user.setFirstName(dto.getFirstName());
+        user.setLastName(dto.getLastName());
+        user.setUsername(dto.getUsername());
+        user.setEmail(dto.getEmail());
+        user.setPhoneNumber(dto.getPhoneNumber());
+        user.setDateOfBirth(dto.getDateOfBirth());
+        user.setGender(dto.getGender());
+        user.setAddress(dto.getAddress());
+        user.setCity(dto.getCity());
+        user.setState(dto.getState());
+        user.setPostalCode(dto.getPostalCode());
+        user.setCountry(dto.getCountry());
+    }
+}
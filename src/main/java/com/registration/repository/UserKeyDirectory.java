@@ -0,0 +1,124 @@
+package com.registration.repository;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Directory of unique user keys (emails and usernames) for sharding mode
+ * A key lives in table user_keys on the shard its hash selects, so its primary key keeps
+ * the key unique across all shards, wherever the user is stored. A registration claims
+ * its keys (user_id null) before writing the user, and binds them to the user's ID once
+ * the write commits. Every method works on the shard selected by the caller.
+ */
+@Repository
+public class UserKeyDirectory {
+
+    /** Idempotent DDL for the directory table, run on every shard at startup */
+    public static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS user_keys ("
+            + "lookup_key VARCHAR(120) NOT NULL PRIMARY KEY, "
+            + "user_id BIGINT, "
+            + "claimed_at TIMESTAMP NOT NULL)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public UserKeyDirectory(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Claim a key that is not bound to a user yet
+     * @param key Lookup key
+     * @param claimedAt Time of the claim
+     * @return false if the key is already claimed or bound
+     */
+    public boolean insertClaim(String key, LocalDateTime claimedAt) {
+        try {
+            jdbcTemplate.update("INSERT INTO user_keys (lookup_key, user_id, claimed_at) VALUES (:key, NULL, :claimedAt)",
+                    Map.of("key", key, "claimedAt", claimedAt));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param key Lookup key
+     * @param claimedBefore Claims older than this are abandoned
+     * @return true if the key holds a claim left unbound since before the given time
+     */
+    public boolean isAbandonedClaim(String key, LocalDateTime claimedBefore) {
+        return !jdbcTemplate.queryForList("SELECT lookup_key FROM user_keys WHERE lookup_key = :key "
+                + "AND user_id IS NULL AND claimed_at < :claimedBefore",
+                Map.of("key", key, "claimedBefore", claimedBefore), String.class).isEmpty();
+    }
+
+    /**
+     * Remove a claim left unbound since before the given time by a registration that never finished
+     * @param key Lookup key
+     * @param claimedBefore Claims older than this are abandoned
+     * @return true if an abandoned claim was removed
+     */
+    public boolean deleteAbandonedClaim(String key, LocalDateTime claimedBefore) {
+        return jdbcTemplate.update("DELETE FROM user_keys WHERE lookup_key = :key AND user_id IS NULL "
+                + "AND claimed_at < :claimedBefore", Map.of("key", key, "claimedBefore", claimedBefore)) > 0;
+    }
+
+    /**
+     * Bind a claimed key to the user that now holds it
+     * @param key Lookup key
+     * @param userId User ID
+     */
+    public void bind(String key, long userId) {
+        jdbcTemplate.update("UPDATE user_keys SET user_id = :userId WHERE lookup_key = :key",
+                Map.of("key", key, "userId", userId));
+    }
+
+    /**
+     * Bind many claimed keys to their users in one batch
+     * @param userIdsByKey User ID for each lookup key
+     */
+    public void bindAll(Map<String, Long> userIdsByKey) {
+        SqlParameterSource[] batch = userIdsByKey.entrySet().stream()
+                .map(binding -> new MapSqlParameterSource("key", binding.getKey()).addValue("userId", binding.getValue()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate("UPDATE user_keys SET user_id = :userId WHERE lookup_key = :key", batch);
+    }
+
+    /**
+     * Release a key, claimed or bound
+     * @param key Lookup key
+     */
+    public void delete(String key) {
+        jdbcTemplate.update("DELETE FROM user_keys WHERE lookup_key = :key", Map.of("key", key));
+    }
+
+    /**
+     * Find the user a key is bound to
+     * @param key Lookup key
+     * @return Optional containing the user ID; empty if the key is free or only claimed
+     */
+    public Optional<Long> findUserId(String key) {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT user_id FROM user_keys WHERE lookup_key = :key "
+                + "AND user_id IS NOT NULL", Map.of("key", key), Long.class);
+        return ids.stream().findFirst();
+    }
+
+    /**
+     * Find which of the given keys are claimed or bound, in one query
+     * @param keys Candidate lookup keys
+     * @return Keys that are taken
+     */
+    public List<String> findExisting(Collection<String> keys) {
+        return jdbcTemplate.queryForList("SELECT lookup_key FROM user_keys WHERE lookup_key IN (:keys)",
+                Map.of("keys", keys), String.class);
+    }
+}
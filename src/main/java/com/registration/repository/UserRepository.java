@@ -1,13 +1,27 @@
 package com.registration.repository;
 
+import com.registration.dto.UserResponseDTO;
 import com.registration.entity.User;
+import com.registration.repository.projection.UserKeys;
+import com.registration.repository.projection.UserSearchFields;
+import com.registration.repository.projection.UserVersion;
+import com.registration.repository.projection.UsersVersion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for User entity
@@ -16,6 +30,66 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    /**
+     * Constructor projection selecting only the response columns
+     * Read queries built on it never load the password hash or put entities in the persistence context
+     */
+    String RESPONSE_SELECT = "SELECT new com.registration.dto.UserResponseDTO(u.userId, u.firstName, u.lastName, " +
+            "u.username, u.email, u.phoneNumber, u.dateOfBirth, u.gender, u.address, u.city, u.state, " +
+            "u.postalCode, u.country, u.isActive, u.emailVerified, u.createdAt, u.updatedAt) FROM User u ";
+
+    /**
+     * Find a user's response view by ID
+     * @param userId User ID
+     * @return Optional containing the user if found
+     */
+    @Query(RESPONSE_SELECT + "WHERE u.userId = :userId")
+    Optional<UserResponseDTO> findResponseById(@Param("userId") Long userId);
+
+    /**
+     * Find the version of a user without loading the row
+     * @param userId User ID
+     * @return Optional containing the user's ID and last modification time if found
+     */
+    @Query("SELECT u.userId AS userId, u.updatedAt AS updatedAt FROM User u WHERE u.userId = :userId")
+    Optional<UserVersion> findVersionById(@Param("userId") Long userId);
+
+    /**
+     * Find the version of the whole users table
+     * @return Latest modification time and row count
+     */
+    @Query("SELECT MAX(u.updatedAt) AS lastUpdatedAt, COUNT(u) AS count FROM User u")
+    UsersVersion findUsersVersion();
+
+    /**
+     * Find the version of the set of active users
+     * @return Latest modification time and count of active users
+     */
+    @Query("SELECT MAX(u.updatedAt) AS lastUpdatedAt, COUNT(u) AS count FROM User u WHERE u.isActive = true")
+    UsersVersion findActiveUsersVersion();
+
+    /**
+     * Find the response views of the given users, in no particular order
+     * @param userIds User IDs
+     * @return Users found
+     */
+    @Query(RESPONSE_SELECT + "WHERE u.userId IN :userIds")
+    List<UserResponseDTO> findResponsesByIdIn(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Find the response views of all users
+     * @return All users
+     */
+    @Query(RESPONSE_SELECT)
+    List<UserResponseDTO> findAllResponses();
+
+    /**
+     * Find the response views of all active users
+     * @return Active users
+     */
+    @Query(RESPONSE_SELECT + "WHERE u.isActive = true")
+    List<UserResponseDTO> findActiveResponses();
+
     /**
      * Find user by email
      * @param email User email
@@ -30,6 +104,30 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     Optional<User> findByUsername(String username);
 
+    /**
+     * Find the ID of the user with the given email
+     * @param email User email
+     * @return Optional containing the user ID if found
+     */
+    @Query("SELECT u.userId FROM User u WHERE u.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
+
+    /**
+     * Find the ID of the user with the given username
+     * @param username User username
+     * @return Optional containing the user ID if found
+     */
+    @Query("SELECT u.userId FROM User u WHERE u.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
+
+    /**
+     * Find the current email and username of a user
+     * @param userId User ID
+     * @return Optional containing the keys if the user exists
+     */
+    @Query("SELECT u.email AS email, u.username AS username FROM User u WHERE u.userId = :userId")
+    Optional<UserKeys> findKeysById(@Param("userId") Long userId);
+
     /**
      * Check if email already exists
      * @param email User email
@@ -75,11 +173,158 @@ public interface UserRepository extends JpaRepository<User, Long> {
                                           @Param("username") String username);
 
     /**
-     * Search users by name (first or last name)
+     * Search users by name, username or email with a table scan
+     * Only used while the in-memory search index is unavailable
      * @param searchTerm Search term
-     * @return List of matching users
+     * @param limit Maximum number of rows
+     * @return Matching users ordered by ID
+     */
+    @Query(RESPONSE_SELECT + "WHERE LOWER(u.firstName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
+           "OR LOWER(u.lastName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
+           "OR LOWER(u.username) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
+           "OR LOWER(u.email) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
+           "ORDER BY u.userId ASC")
+    List<UserResponseDTO> searchUsersByTerm(@Param("searchTerm") String searchTerm, Limit limit);
+
+    /**
+     * Filter shared by the web listing's page query and its count query
+     * An empty term matches every user; a null active flag matches both states
+     */
+    String LISTING_FILTER = "WHERE (:active IS NULL OR u.isActive = :active) " +
+            "AND (LOWER(u.firstName) LIKE LOWER(CONCAT('%', :term, '%')) " +
+            "OR LOWER(u.lastName) LIKE LOWER(CONCAT('%', :term, '%')) " +
+            "OR LOWER(u.username) LIKE LOWER(CONCAT('%', :term, '%')) " +
+            "OR LOWER(u.email) LIKE LOWER(CONCAT('%', :term, '%'))) ";
+
+    /**
+     * Numbered, sorted page of users for the web listing
+     * @param term Text to find in the name, username or email ("" for all users)
+     * @param active Active flag to match, or null for all users
+     * @param pageable Page number, size and sort
+     * @return Page of users with the total count
+     */
+    @Query(value = RESPONSE_SELECT + LISTING_FILTER,
+           countQuery = "SELECT COUNT(u) FROM User u " + LISTING_FILTER)
+    Page<UserResponseDTO> findListingPage(@Param("term") String term, @Param("active") Boolean active,
+                                          Pageable pageable);
+
+    /**
+     * Keyset page of users ordered by ID
+     * @param afterId Last user ID of the previous page (0 for the first page)
+     * @param limit Maximum number of rows
+     * @return Users with an ID greater than afterId
+     */
+    @Query(RESPONSE_SELECT + "WHERE u.userId > :afterId ORDER BY u.userId ASC")
+    List<UserResponseDTO> findPageOrderById(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Keyset page of active users ordered by ID
+     * @param afterId Last user ID of the previous page (0 for the first page)
+     * @param limit Maximum number of rows
+     * @return Active users with an ID greater than afterId
+     */
+    @Query(RESPONSE_SELECT + "WHERE u.isActive = true AND u.userId > :afterId ORDER BY u.userId ASC")
+    List<UserResponseDTO> findActivePageOrderById(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Keyset page of inactive users ordered by ID
+     * @param afterId Last user ID of the previous page (0 for the first page)
+     * @param limit Maximum number of rows
+     * @return Inactive users with an ID greater than afterId
+     */
+    @Query(RESPONSE_SELECT + "WHERE u.isActive = false AND u.userId > :afterId ORDER BY u.userId ASC")
+    List<UserResponseDTO> findInactivePageOrderById(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Keyset page of users ordered by creation time, ties broken by ID
+     * @param createdAt Creation time of the last row of the previous page
+     * @param afterId Last user ID of the previous page
+     * @param limit Maximum number of rows
+     * @return Users positioned after (createdAt, afterId)
+     */
+    @Query(RESPONSE_SELECT + "WHERE u.createdAt > :createdAt " +
+           "OR (u.createdAt = :createdAt AND u.userId > :afterId) " +
+           "ORDER BY u.createdAt ASC, u.userId ASC")
+    List<UserResponseDTO> findPageOrderByCreatedAt(@Param("createdAt") LocalDateTime createdAt,
+                                                   @Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Keyset page of active users ordered by creation time, ties broken by ID
+     * @param createdAt Creation time of the last row of the previous page
+     * @param afterId Last user ID of the previous page
+     * @param limit Maximum number of rows
+     * @return Active users positioned after (createdAt, afterId)
+     */
+    @Query(RESPONSE_SELECT + "WHERE u.isActive = true AND (u.createdAt > :createdAt " +
+           "OR (u.createdAt = :createdAt AND u.userId > :afterId)) " +
+           "ORDER BY u.createdAt ASC, u.userId ASC")
+    List<UserResponseDTO> findActivePageOrderByCreatedAt(@Param("createdAt") LocalDateTime createdAt,
+                                                         @Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Keyset page of inactive users ordered by creation time, ties broken by ID
+     * @param createdAt Creation time of the last row of the previous page
+     * @param afterId Last user ID of the previous page
+     * @param limit Maximum number of rows
+     * @return Inactive users positioned after (createdAt, afterId)
+     */
+    @Query(RESPONSE_SELECT + "WHERE u.isActive = false AND (u.createdAt > :createdAt " +
+           "OR (u.createdAt = :createdAt AND u.userId > :afterId)) " +
+           "ORDER BY u.createdAt ASC, u.userId ASC")
+    List<UserResponseDTO> findInactivePageOrderByCreatedAt(@Param("createdAt") LocalDateTime createdAt,
+                                                           @Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Stream all users ordered by ID for bulk export
+     * Rows are fetched from the driver in chunks as DTOs, so the persistence context
+     * stays empty; the caller must consume the stream inside a transaction and close it
+     * @return Stream of all users
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query(RESPONSE_SELECT + "ORDER BY u.userId ASC")
+    Stream<UserResponseDTO> streamAllForExport();
+
+    /**
+     * Find which of the given emails are already registered, in one query
+     * @param emails Candidate emails
+     * @return Emails that already exist
+     */
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    /**
+     * Find which of the given usernames are already taken, in one query
+     * @param usernames Candidate usernames
+     * @return Usernames that already exist
+     */
+    @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    /**
+     * Stream the email and username of every user
+     * Must be consumed inside a transaction and closed by the caller
+     * @return Stream of unique keys
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u.email AS email, u.username AS username FROM User u")
+    Stream<UserKeys> streamUserKeys();
+
+    /**
+     * Stream the searchable fields of every user
+     * Must be consumed inside a transaction and closed by the caller
+     * @return Stream of search fields
      */
-    @Query("SELECT u FROM User u WHERE LOWER(u.firstName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-           "OR LOWER(u.lastName) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    List<User> searchUsersByName(@Param("searchTerm") String searchTerm);
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u.userId AS userId, u.firstName AS firstName, u.lastName AS lastName, " +
+           "u.username AS username, u.email AS email FROM User u")
+    Stream<UserSearchFields> streamSearchFields();
 }
@@ -0,0 +1,12 @@
+package com.registration.repository.projection;
+
+/**
+ * Interface projection of the unique keys of a user
+ * Lets index loaders stream emails and usernames without hydrating entities
+ */
+public interface UserKeys {
+
+    String getEmail();
+
+    String getUsername();
+}
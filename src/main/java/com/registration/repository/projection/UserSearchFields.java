@@ -0,0 +1,18 @@
+package com.registration.repository.projection;
+
+/**
+ * Interface projection of the searchable fields of a user
+ * Lets the search index load without hydrating entities
+ */
+public interface UserSearchFields {
+
+    Long getUserId();
+
+    String getFirstName();
+
+    String getLastName();
+
+    String getUsername();
+
+    String getEmail();
+}
@@ -0,0 +1,14 @@
+package com.registration.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Interface projection of the version of one user
+ * Lets conditional requests be answered without loading the row
+ */
+public interface UserVersion {
+
+    Long getUserId();
+
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,14 @@
+package com.registration.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Interface projection of the version of a set of users
+ * Any insert or update moves the latest modification time and any delete changes the count
+ */
+public interface UsersVersion {
+
+    LocalDateTime getLastUpdatedAt();
+
+    long getCount();
+}
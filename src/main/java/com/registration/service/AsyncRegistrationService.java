@@ -0,0 +1,324 @@
+package com.registration.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.registration.dto.BatchItemResultDTO;
+import com.registration.dto.BatchItemStatus;
+import com.registration.dto.BatchRegistrationResultDTO;
+import com.registration.dto.RegistrationTicketDTO;
+import com.registration.dto.TicketStatus;
+import com.registration.dto.UserRegistrationDTO;
+import com.registration.exception.DuplicateResourceException;
+import com.registration.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accept-then-process registration
+ * A submission reserves its email and username in memory, checks them against the
+ * database and is queued under a ticket ID. A single writer thread drains the queue
+ * in batches and registers each batch through {@link UserService#registerUsers}, so
+ * hashing runs in parallel on the hashing executor and inserts go out as JDBC batches.
+ *
+ * Tickets and queued registrations live in memory only: work accepted but not yet
+ * written is lost if the process dies. On shutdown the queue is drained first.
+ */
+@Service
+@Slf4j
+public class AsyncRegistrationService {
+
+    private static final int MAX_OVERLOAD_RETRIES = 3;
+
+    private final UserService userService;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final Duration shutdownTimeout;
+    private final BlockingQueue<PendingRegistration> queue;
+    private final Cache<String, RegistrationTicketDTO> tickets;
+    private final Map<String, String> reservedEmails = new ConcurrentHashMap<>();
+    private final Map<String, String> reservedUsernames = new ConcurrentHashMap<>();
+    private final Thread writer;
+    private volatile boolean accepting = true;
+
+    private final Counter completedCounter;
+    private final Counter failedCounter;
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizes;
+
+    public AsyncRegistrationService(UserService userService,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${registration.async.enabled:false}") boolean enabled,
+                                    @Value("${registration.async.queue-capacity:10000}") int queueCapacity,
+                                    @Value("${registration.async.batch-size:200}") int batchSize,
+                                    @Value("${registration.async.linger:20ms}") Duration linger,
+                                    @Value("${registration.async.ticket-ttl:1h}") Duration ticketTtl,
+                                    @Value("${registration.async.shutdown-timeout:30s}") Duration shutdownTimeout) {
+        if (batchSize < 1 || batchSize > 1000) {
+            throw new IllegalArgumentException("registration.async.batch-size must be between 1 and 1000");
+        }
+        this.userService = userService;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.lingerNanos = linger.toNanos();
+        this.shutdownTimeout = shutdownTimeout;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        // Sized well above the queue so that pending tickets are never evicted
+        this.tickets = Caffeine.newBuilder()
+                .maximumSize(queueCapacity * 10L)
+                .expireAfterWrite(ticketTtl)
+                .executor(Runnable::run)
+                .build();
+
+        this.completedCounter = ticketCounter(meterRegistry, "completed");
+        this.failedCounter = ticketCounter(meterRegistry, "failed");
+        this.flushTimer = Timer.builder("registration.async.flush")
+                .description("Time to hash and insert one batch of queued registrations")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("registration.async.batch.size")
+                .description("Registrations written per batch")
+                .register(meterRegistry);
+        Gauge.builder("registration.async.queue.depth", queue, BlockingQueue::size)
+                .description("Accepted registrations waiting to be written")
+                .register(meterRegistry);
+
+        this.writer = new Thread(this::drainLoop, "registration-writer");
+        this.writer.setDaemon(true);
+        if (enabled) {
+            writer.start();
+            log.info("Asynchronous registration enabled: queue capacity {}, batches of up to {}",
+                    queueCapacity, batchSize);
+        }
+    }
+
+    /**
+     * Whether POST /api/users/register should accept registrations asynchronously
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Reserve the registration's email and username and queue it for writing
+     * @param registrationDTO Validated registration data
+     * @return Pending ticket
+     * @throws DuplicateResourceException if the email or username is registered or reserved
+     * @throws ServiceOverloadedException if the queue is full
+     */
+    public RegistrationTicketDTO submit(UserRegistrationDTO registrationDTO) {
+        if (!enabled || !accepting) {
+            throw new ServiceOverloadedException("Asynchronous registration is not accepting requests");
+        }
+        String ticketId = UUID.randomUUID().toString();
+        String emailKey = normalize(registrationDTO.getEmail());
+        String usernameKey = normalize(registrationDTO.getUsername());
+
+        if (reservedEmails.putIfAbsent(emailKey, ticketId) != null) {
+            throw new DuplicateResourceException("Email already registered: " + registrationDTO.getEmail());
+        }
+        if (reservedUsernames.putIfAbsent(usernameKey, ticketId) != null) {
+            reservedEmails.remove(emailKey, ticketId);
+            throw new DuplicateResourceException("Username already taken: " + registrationDTO.getUsername());
+        }
+        try {
+            if (userService.isEmailExists(registrationDTO.getEmail())) {
+                throw new DuplicateResourceException("Email already registered: " + registrationDTO.getEmail());
+            }
+            if (userService.isUsernameExists(registrationDTO.getUsername())) {
+                throw new DuplicateResourceException("Username already taken: " + registrationDTO.getUsername());
+            }
+
+            RegistrationTicketDTO ticket = RegistrationTicketDTO.builder()
+                    .ticketId(ticketId)
+                    .status(TicketStatus.PENDING)
+                    .submittedAt(LocalDateTime.now())
+                    .build();
+            tickets.put(ticketId, ticket);
+            if (!queue.offer(new PendingRegistration(ticket, registrationDTO, emailKey, usernameKey))) {
+                tickets.invalidate(ticketId);
+                throw new ServiceOverloadedException("Registration queue is full, please retry shortly");
+            }
+            log.debug("Accepted registration for {} as ticket {}", registrationDTO.getEmail(), ticketId);
+            return ticket;
+        } catch (RuntimeException e) {
+            reservedEmails.remove(emailKey, ticketId);
+            reservedUsernames.remove(usernameKey, ticketId);
+            throw e;
+        }
+    }
+
+    /**
+     * Look up a ticket
+     * @param ticketId Ticket ID
+     * @return Optional containing the ticket if known and not expired
+     */
+    public Optional<RegistrationTicketDTO> getTicket(String ticketId) {
+        return Optional.ofNullable(tickets.getIfPresent(ticketId));
+    }
+
+    /**
+     * Stop accepting and write out everything already queued
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        accepting = false;
+        if (writer.isAlive()) {
+            writer.join(shutdownTimeout.toMillis());
+            if (!queue.isEmpty()) {
+                log.warn("Shutting down with {} queued registrations not written", queue.size());
+            }
+        }
+    }
+
+    private void drainLoop() {
+        List<PendingRegistration> batch = new ArrayList<>(batchSize);
+        while (accepting || !queue.isEmpty()) {
+            try {
+                PendingRegistration first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Linger briefly so that a burst is written as one batch
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingRegistration next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Unexpected failure writing queued registrations", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingRegistration> batch) throws InterruptedException {
+        batchSizes.record(batch.size());
+        long start = System.nanoTime();
+        try {
+            List<UserRegistrationDTO> registrations = new ArrayList<>(batch.size());
+            batch.forEach(pending -> registrations.add(pending.registration()));
+            BatchRegistrationResultDTO result = registerWithRetry(registrations);
+            List<PendingRegistration> unwritten = new ArrayList<>();
+            for (BatchItemResultDTO item : result.getResults()) {
+                if (item.getStatus() == BatchItemStatus.FAILED) {
+                    unwritten.add(batch.get(item.getIndex()));
+                } else {
+                    complete(batch.get(item.getIndex()), item);
+                }
+            }
+            // The write of some shard failed while the others committed; retry only its items
+            for (PendingRegistration pending : unwritten) {
+                flush(List.of(pending));
+            }
+        } catch (DuplicateResourceException e) {
+            if (batch.size() == 1) {
+                fail(batch.get(0), e.getMessage());
+            } else {
+                // A concurrent write won a unique key; find the loser by writing one at a time
+                for (PendingRegistration pending : batch) {
+                    flush(List.of(pending));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to write {} queued registrations", batch.size(), e);
+            batch.forEach(pending -> fail(pending, "Registration could not be completed, please try again"));
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private BatchRegistrationResultDTO registerWithRetry(List<UserRegistrationDTO> registrations)
+            throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return userService.registerUsers(registrations);
+            } catch (ServiceOverloadedException e) {
+                if (attempt >= MAX_OVERLOAD_RETRIES) {
+                    throw e;
+                }
+                log.warn("Hashing is saturated, retrying batch of {} (attempt {})", registrations.size(), attempt);
+                Thread.sleep(200L * attempt);
+            }
+        }
+    }
+
+    private void complete(PendingRegistration pending, BatchItemResultDTO item) {
+        if (item.getStatus() == BatchItemStatus.CREATED) {
+            finish(pending, TicketStatus.COMPLETED, item, null);
+            completedCounter.increment();
+        } else {
+            String message = item.getValidationErrors() != null
+                    ? item.getMessage() + ": " + item.getValidationErrors()
+                    : item.getMessage();
+            fail(pending, message);
+        }
+    }
+
+    private void fail(PendingRegistration pending, String message) {
+        finish(pending, TicketStatus.FAILED, null, message);
+        failedCounter.increment();
+    }
+
+    private void finish(PendingRegistration pending, TicketStatus status, BatchItemResultDTO item, String message) {
+        RegistrationTicketDTO ticket = pending.ticket();
+        tickets.put(ticket.getTicketId(), RegistrationTicketDTO.builder()
+                .ticketId(ticket.getTicketId())
+                .status(status)
+                .user(item != null ? item.getUser() : null)
+                .message(message)
+                .submittedAt(ticket.getSubmittedAt())
+                .completedAt(LocalDateTime.now())
+                .build());
+        reservedEmails.remove(pending.emailKey(), ticket.getTicketId());
+        reservedUsernames.remove(pending.usernameKey(), ticket.getTicketId());
+    }
+
+    private static Counter ticketCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("registration.async.tickets")
+                .tag("outcome", outcome)
+                .description("Asynchronous registrations by outcome")
+                .register(meterRegistry);
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private record PendingRegistration(RegistrationTicketDTO ticket, UserRegistrationDTO registration,
+                                       String emailKey, String usernameKey) {
+    }
+}
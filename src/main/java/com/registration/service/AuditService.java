@@ -0,0 +1,210 @@
+package com.registration.service;
+
+import com.registration.audit.AuditEvent;
+import com.registration.audit.AuditLog;
+import com.registration.dto.CursorPageDTO;
+import com.registration.event.UserChangedEvent;
+import com.registration.exception.InvalidRequestException;
+import com.registration.util.MpscRingBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Structured audit trail of user registrations, updates, deactivations and deletions
+ *
+ * Committed changes are handed to a lock-free ring buffer; the request thread only
+ * captures a timestamp and enqueues the event. A single writer thread encodes the events
+ * into the memory-mapped {@link AuditLog} and forces it to disk every fsync interval.
+ * When the ring is full, producers briefly park until the writer catches up rather than
+ * dropping events.
+ */
+@Service
+@Slf4j
+public class AuditService {
+
+    /** Largest number of events returned by one page */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private static final int DRAIN_BATCH = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final boolean enabled;
+    private final long fsyncIntervalNanos;
+    private final MpscRingBuffer<PendingEvent> ring;
+    private final AuditLog auditLog;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter backpressure;
+
+    public AuditService(MeterRegistry meterRegistry,
+                        @Value("${registration.audit.enabled:true}") boolean enabled,
+                        @Value("${registration.audit.directory:data/audit}") Path directory,
+                        @Value("${registration.audit.segment-size:64MB}") DataSize segmentSize,
+                        @Value("${registration.audit.retained-segments:0}") int retainedSegments,
+                        @Value("${registration.audit.ring-capacity:8192}") int ringCapacity,
+                        @Value("${registration.audit.fsync-interval:1s}") Duration fsyncInterval) throws IOException {
+        this.enabled = enabled;
+        this.fsyncIntervalNanos = fsyncInterval.toNanos();
+        this.ring = new MpscRingBuffer<>(ringCapacity);
+        this.auditLog = enabled ? new AuditLog(directory, Math.toIntExact(segmentSize.toBytes()), retainedSegments) : null;
+
+        this.written = auditCounter(meterRegistry, "written");
+        this.dropped = auditCounter(meterRegistry, "dropped");
+        this.backpressure = Counter.builder("registration.audit.backpressure")
+                .description("Times a producer waited because the audit ring buffer was full")
+                .register(meterRegistry);
+        Gauge.builder("registration.audit.ring.size", ring, MpscRingBuffer::size)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+        Gauge.builder("registration.audit.offset", this, s -> s.auditLog == null ? 0 : s.auditLog.nextOffset())
+                .description("Offset the next audit event will get")
+                .register(meterRegistry);
+
+        this.writer = new Thread(this::writeLoop, "audit-writer");
+        this.writer.setDaemon(true);
+        if (enabled) {
+            writer.start();
+        }
+    }
+
+    /**
+     * Record a committed user change
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        PendingEvent pending = new PendingEvent(Instant.now(), event);
+        while (!ring.offer(pending)) {
+            if (!running) {
+                dropped.increment();
+                return;
+            }
+            backpressure.increment();
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+    }
+
+    /**
+     * Replay audit events in order
+     * @param fromOffset First offset to return
+     * @param limit Maximum number of events
+     * @return Events from fromOffset on; empty when the log is disabled or the offset is past the end
+     */
+    public List<AuditEvent> readEvents(long fromOffset, int limit) {
+        if (auditLog == null) {
+            return Collections.emptyList();
+        }
+        return auditLog.read(fromOffset, limit);
+    }
+
+    /**
+     * Replay audit events one page at a time
+     * @param fromOffset First offset to return
+     * @param limit Maximum number of events (1 to {@value #MAX_PAGE_SIZE})
+     * @return Page whose nextCursor is the offset to read next
+     * @throws InvalidRequestException if the offset is negative or the limit is out of range
+     */
+    public CursorPageDTO<AuditEvent> getEventsPage(long fromOffset, int limit) {
+        if (fromOffset < 0) {
+            throw new InvalidRequestException("Offset must not be negative");
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new InvalidRequestException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        List<AuditEvent> events = readEvents(fromOffset, limit);
+        long next = events.isEmpty() ? fromOffset : events.get(events.size() - 1).getOffset() + 1;
+        return CursorPageDTO.<AuditEvent>builder()
+                .items(events)
+                .limit(limit)
+                .nextCursor(String.valueOf(next))
+                .hasMore(next < nextOffset())
+                .build();
+    }
+
+    /**
+     * @return Offset the next audit event will get
+     */
+    public long nextOffset() {
+        return auditLog == null ? 0 : auditLog.nextOffset();
+    }
+
+    /**
+     * Write out everything buffered and close the log
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (writer.isAlive()) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        if (auditLog != null) {
+            auditLog.close();
+        }
+    }
+
+    private void writeLoop() {
+        long lastFlush = System.nanoTime();
+        while (true) {
+            int drained = ring.drain(this::write, DRAIN_BATCH);
+            long now = System.nanoTime();
+            if (now - lastFlush >= fsyncIntervalNanos) {
+                try {
+                    auditLog.flush();
+                } catch (UncheckedIOException e) {
+                    log.error("Failed to force the audit log to disk", e);
+                }
+                lastFlush = now;
+            }
+            if (drained == 0) {
+                if (!running && ring.size() == 0) {
+                    return;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private void write(PendingEvent pending) {
+        try {
+            auditLog.append(pending.timestamp(), pending.event());
+            written.increment();
+        } catch (IOException | UncheckedIOException e) {
+            dropped.increment();
+            log.error("Failed to write audit event {}", pending.event(), e);
+        }
+    }
+
+    private static Counter auditCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("registration.audit.events")
+                .tag("outcome", outcome)
+                .description("Audit events by outcome; dropped events were lost to a stopped or failing writer")
+                .register(meterRegistry);
+    }
+
+    private record PendingEvent(Instant timestamp, UserChangedEvent event) {
+    }
+}
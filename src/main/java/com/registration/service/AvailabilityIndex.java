@@ -0,0 +1,339 @@
+package com.registration.service;
+
+import com.registration.event.UserChangedEvent;
+import com.registration.repository.UserRepository;
+import com.registration.repository.projection.UserKeys;
+import com.registration.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+/**
+ * In-memory Bloom filter index of registered emails and usernames
+ * A "definitely absent" answer is served without touching the database; anything
+ * else falls through to the usual exists query. Keys are lower-cased so that the
+ * index never misses a match under MySQL's case-insensitive collation.
+ *
+ * Keys are added before the write commits, so a committed key is never reported absent.
+ * A rebuild can snapshot the table after that add but before the commit, so writes in
+ * flight are also added to the new filters just before they are swapped in, and keys are
+ * checked again after they commit.
+ *
+ * Bloom filters cannot forget entries, so deletions and key changes are counted
+ * as stale and the filters are rebuilt in the background once too many accumulate
+ * or the table outgrows the configured capacity.
+ */
+@Service
+@Slf4j
+public class AvailabilityIndex {
+
+    private final UserRepository userRepository;
+    private final UserShards userShards;
+    private final boolean enabled;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final double rebuildStaleRatio;
+    private final ExecutorService loader;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final AtomicLong staleEntries = new AtomicLong();
+
+    /** Writes whose keys were added but which have not committed or rolled back yet */
+    private final Set<UserChangedEvent> inFlight = ConcurrentHashMap.newKeySet();
+    private final Counter definitelyAbsent;
+    private final Counter maybePresent;
+    private final Counter falsePositives;
+
+    /** Filters answering lookups; null until the first load completes */
+    private volatile Filters active;
+
+    /** Filters being loaded; writes go to both so nothing registered mid-load is missed */
+    private volatile Filters loading;
+
+    public AvailabilityIndex(UserRepository userRepository,
+                             UserShards userShards,
+                             MeterRegistry meterRegistry,
+                             @Value("${registration.availability.enabled:true}") boolean enabled,
+                             @Value("${registration.availability.expected-insertions:1000000}") long expectedInsertions,
+                             @Value("${registration.availability.false-positive-rate:0.01}") double falsePositiveRate,
+                             @Value("${registration.availability.rebuild-stale-ratio:0.2}") double rebuildStaleRatio) {
+        this.userRepository = userRepository;
+        this.userShards = userShards;
+        this.enabled = enabled;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.rebuildStaleRatio = rebuildStaleRatio;
+        this.loader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "availability-index-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.definitelyAbsent = lookupCounter(meterRegistry, "definitely_absent");
+        this.maybePresent = lookupCounter(meterRegistry, "maybe_present");
+        this.falsePositives = lookupCounter(meterRegistry, "false_positive");
+        Gauge.builder("registration.availability.bloom.bits", this, index -> index.gauge(Filters::bitSize))
+                .description("Size of each availability Bloom filter in bits")
+                .register(meterRegistry);
+        Gauge.builder("registration.availability.bloom.entries", this, index -> index.gauge(Filters::entries))
+                .description("Keys added to the availability index since the last rebuild")
+                .register(meterRegistry);
+        Gauge.builder("registration.availability.bloom.fill.ratio", this, index -> index.gauge(f -> f.emails.getFillRatio()))
+                .tag("key", "email")
+                .description("Fraction of Bloom filter bits set")
+                .register(meterRegistry);
+        Gauge.builder("registration.availability.bloom.fill.ratio", this, index -> index.gauge(f -> f.usernames.getFillRatio()))
+                .tag("key", "username")
+                .description("Fraction of Bloom filter bits set")
+                .register(meterRegistry);
+        Gauge.builder("registration.availability.bloom.stale", staleEntries, AtomicLong::get)
+                .description("Entries left behind by deletions and key changes since the last rebuild")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Load the index from the database once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (enabled) {
+            scheduleRebuild(expectedInsertions);
+        }
+    }
+
+    /**
+     * Whether the email may be registered
+     * @param email Email address
+     * @return false only if the email is definitely not registered
+     */
+    public boolean mightContainEmail(String email) {
+        Filters filters = active;
+        return record(filters == null || filters.emails.mightContain(normalize(email)));
+    }
+
+    /**
+     * Whether the username may be taken
+     * @param username Username
+     * @return false only if the username is definitely not taken
+     */
+    public boolean mightContainUsername(String username) {
+        Filters filters = active;
+        return record(filters == null || filters.usernames.mightContain(normalize(username)));
+    }
+
+    /**
+     * Record that a "maybe present" answer turned out to be absent in the database
+     */
+    public void recordFalsePositive() {
+        falsePositives.increment();
+    }
+
+    /**
+     * Keep the index in step with user writes
+     * Runs inside the write transaction, before commit, so a committed key is never reported absent
+     */
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        switch (event.getType()) {
+            case REGISTERED -> {
+                inFlight.add(event);
+                add(event.getUser().getEmail(), event.getUser().getUsername());
+            }
+            case UPDATED -> {
+                boolean emailChanged = !event.getUser().getEmail().equalsIgnoreCase(event.getPreviousEmail());
+                boolean usernameChanged = !event.getUser().getUsername().equalsIgnoreCase(event.getPreviousUsername());
+                if (emailChanged || usernameChanged) {
+                    inFlight.add(event);
+                    add(event.getUser().getEmail(), event.getUser().getUsername());
+                    markStale();
+                }
+            }
+            case DELETED -> markStale();
+            default -> {
+                // Deactivated users keep their email and username
+            }
+        }
+    }
+
+    /**
+     * Make sure a committed key is in the filters a concurrent rebuild is loading or just swapped in
+     * Reads the loading filters before the active ones: if no rebuild was loading yet, any
+     * later one streams the table after this commit and sees the key.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChangeCommitted(UserChangedEvent event) {
+        if (!inFlight.remove(event)) {
+            return;
+        }
+        Filters pending = loading;
+        Filters current = active;
+        String email = event.getUser().getEmail();
+        String username = event.getUser().getUsername();
+        if (pending != null) {
+            pending.addIfAbsent(email, username);
+        }
+        if (current != null && current != pending) {
+            current.addIfAbsent(email, username);
+        }
+    }
+
+    /**
+     * Forget a write that rolled back; its keys stay in the filters as false positives
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onUserChangeRolledBack(UserChangedEvent event) {
+        inFlight.remove(event);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loader.shutdownNow();
+    }
+
+    private void add(String email, String username) {
+        Filters current = active;
+        Filters pending = loading;
+        if (current != null) {
+            current.add(email, username);
+            if (current.entries() > current.capacity) {
+                scheduleRebuild(current.capacity * 2);
+            }
+        }
+        if (pending != null && pending != current) {
+            pending.add(email, username);
+        }
+    }
+
+    private void markStale() {
+        long stale = staleEntries.incrementAndGet();
+        Filters current = active;
+        if (current != null && stale > current.entries() * rebuildStaleRatio) {
+            scheduleRebuild(Math.max(expectedInsertions, current.entries() * 2));
+        }
+    }
+
+    private void scheduleRebuild(long capacity) {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        loader.execute(() -> {
+            try {
+                rebuild(capacity);
+            } catch (RuntimeException e) {
+                log.error("Failed to load availability index; lookups fall back to the database", e);
+            } finally {
+                loading = null;
+                rebuilding.set(false);
+            }
+            // Grow ahead of the table so the false-positive rate stays near its target
+            Filters loaded = active;
+            if (loaded != null && loaded.entries() > loaded.capacity) {
+                scheduleRebuild(loaded.entries() * 2);
+            }
+        });
+    }
+
+    private void rebuild(long capacity) {
+        long start = System.nanoTime();
+        Filters filters = new Filters(capacity, falsePositiveRate);
+        loading = filters;
+        long staleBefore = staleEntries.get();
+        userShards.forEachShard(shard -> userShards.readPrimary(shard, () -> {
+            try (Stream<UserKeys> keys = userRepository.streamUserKeys()) {
+                keys.forEach(key -> filters.add(key.getEmail(), key.getUsername()));
+            }
+            return null;
+        }));
+        // Writes still in flight may have committed after the snapshot above
+        inFlight.forEach(event -> filters.addIfAbsent(event.getUser().getEmail(), event.getUser().getUsername()));
+        active = filters;
+        staleEntries.addAndGet(-staleBefore);
+        log.info("Availability index loaded {} users into {} KB per filter in {} ms",
+                filters.entries(), filters.bitSize() / 8 / 1024, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private boolean record(boolean mightContain) {
+        (mightContain ? maybePresent : definitelyAbsent).increment();
+        return mightContain;
+    }
+
+    private double gauge(ToDoubleFunction<Filters> metric) {
+        Filters filters = active;
+        return filters == null ? 0 : metric.applyAsDouble(filters);
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("registration.availability.lookups")
+                .tag("result", result)
+                .description("Availability lookups by Bloom filter outcome")
+                .register(meterRegistry);
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Email and username filters that are swapped together
+     */
+    private static final class Filters {
+
+        private final long capacity;
+        private final BloomFilter emails;
+        private final BloomFilter usernames;
+
+        private Filters(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.emails = new BloomFilter(capacity, falsePositiveRate);
+            this.usernames = new BloomFilter(capacity, falsePositiveRate);
+        }
+
+        private void add(String email, String username) {
+            emails.put(normalize(email));
+            usernames.put(normalize(username));
+        }
+
+        /**
+         * Add keys the filters do not already report, so re-adding a key does not count it twice
+         */
+        private void addIfAbsent(String email, String username) {
+            String normalizedEmail = normalize(email);
+            String normalizedUsername = normalize(username);
+            if (!emails.mightContain(normalizedEmail)) {
+                emails.put(normalizedEmail);
+            }
+            if (!usernames.mightContain(normalizedUsername)) {
+                usernames.put(normalizedUsername);
+            }
+        }
+
+        private long entries() {
+            return emails.getInsertions();
+        }
+
+        private long bitSize() {
+            return emails.getBitSize();
+        }
+    }
+}
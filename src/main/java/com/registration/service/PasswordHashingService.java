@@ -0,0 +1,208 @@
+package com.registration.service;
+
+import com.registration.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs password hashing on a dedicated, bounded executor
+ * BCrypt is CPU-bound, so hashing is sized to the CPU count and kept outside database
+ * transactions; a full queue rejects work instead of letting requests pile up
+ */
+@Service
+@Slf4j
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final Timer hashTimer;
+    private final Timer queueWaitTimer;
+    private final Counter rejectedCounter;
+    private final Counter upgradedCounter;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${registration.hashing.threads:0}") int threads,
+                                  @Value("${registration.hashing.queue-capacity:256}") int queueCapacity,
+                                  @Value("${registration.hashing.timeout:10s}") Duration timeout) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.passwordEncoder = passwordEncoder;
+        this.timeout = timeout;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.hashTimer = Timer.builder("registration.hashing.duration")
+                .description("Time spent computing a password hash")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("registration.hashing.queue.wait")
+                .description("Time a hashing task waited in the queue before it started")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("registration.hashing.rejected")
+                .description("Hashing tasks rejected because the queue was full")
+                .register(meterRegistry);
+        this.upgradedCounter = Counter.builder("registration.hashing.upgraded")
+                .description("Stored hashes replaced because they used an older work factor")
+                .register(meterRegistry);
+        Gauge.builder("registration.hashing.queue.depth", executor, e -> e.getQueue().size())
+                .description("Hashing tasks waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("registration.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hashing threads currently busy")
+                .register(meterRegistry);
+
+        log.info("Password hashing executor started with {} threads and queue capacity {}", poolSize, queueCapacity);
+    }
+
+    /**
+     * Hash a password on the hashing executor, blocking the caller until it is done
+     * @param rawPassword Raw password
+     * @return Encoded password
+     */
+    public String encode(String rawPassword) {
+        return await(submit(() -> timedEncode(rawPassword)), timeout);
+    }
+
+    /**
+     * Hash several passwords, spreading them over the hashing threads
+     * Work is split into one task per thread so a large batch occupies few queue slots
+     * @param rawPasswords Raw passwords
+     * @return Encoded passwords, in the same order
+     */
+    public List<String> encodeAll(List<String> rawPasswords) {
+        int size = rawPasswords.size();
+        int slices = Math.min(size, executor.getMaximumPoolSize());
+        List<Future<List<String>>> futures = new ArrayList<>(slices);
+        int largestSlice = 0;
+        for (int slice = 0; slice < slices; slice++) {
+            List<String> part = rawPasswords.subList(slice * size / slices, (slice + 1) * size / slices);
+            largestSlice = Math.max(largestSlice, part.size());
+            futures.add(submit(() -> {
+                List<String> encoded = new ArrayList<>(part.size());
+                for (String rawPassword : part) {
+                    encoded.add(timedEncode(rawPassword));
+                }
+                return encoded;
+            }));
+        }
+        // The timeout applies per password, so a slice may take as long as its share of the batch
+        Duration batchTimeout = timeout.multipliedBy(largestSlice);
+        List<String> encoded = new ArrayList<>(size);
+        for (Future<List<String>> future : futures) {
+            encoded.addAll(await(future, batchTimeout));
+        }
+        return encoded;
+    }
+
+    /**
+     * Whether a stored hash was made with a weaker work factor than the current one
+     * Callers holding the raw password (a password change, or a future login) should
+     * then store a fresh hash
+     * @param encodedPassword Stored hash
+     * @return true if the hash should be replaced
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return encodedPassword != null && passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Record that a stale hash was replaced at the current work factor
+     */
+    public void recordUpgrade() {
+        upgradedCounter.increment();
+    }
+
+    /**
+     * Number of hashing tasks waiting for a thread
+     * @return Queue depth
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Expected wait before a newly queued hashing task starts, from the queue depth and the
+     * mean hashing time so far
+     * @return Estimated queue delay
+     */
+    public Duration estimateQueueDelay() {
+        double meanNanos = hashTimer.mean(TimeUnit.NANOSECONDS);
+        return Duration.ofNanos((long) (getQueueDepth() * meanNanos / executor.getMaximumPoolSize()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> Future<T> submit(Callable<T> task) {
+        long enqueuedAt = System.nanoTime();
+        try {
+            return executor.submit(() -> {
+                queueWaitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                return task.call();
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("Password hashing queue is full ({} waiting)", executor.getQueue().size());
+            throw new ServiceOverloadedException("Server is busy, please retry shortly", e);
+        }
+    }
+
+    private <T> T await(Future<T> future, Duration limit) {
+        try {
+            return future.get(limit.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new ServiceOverloadedException("Password hashing timed out, please retry shortly", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause
+                    : new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+
+    private String timedEncode(String rawPassword) {
+        return hashTimer.record(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.registration.service;
+
+import com.registration.dto.UserChangeDTO;
+import com.registration.event.UserChangedEvent;
+import com.registration.exception.ServiceOverloadedException;
+import com.registration.util.ReplayRing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-Sent Events stream of committed user changes
+ *
+ * Every committed change gets the next sequence number and goes into a ring buffer of
+ * the most recent changes, which is the only copy: subscribers hold just the sequence
+ * they last received. A subscriber is drained on a small sender pool whenever the ring
+ * moves ahead of it. A client reconnecting with the last sequence it saw (Last-Event-ID)
+ * resumes from the ring; if that sequence has been overwritten, or comes from before a
+ * restart, it gets a "reset" event and continues with new changes only.
+ *
+ * A subscriber is disconnected once the oldest change it has not received has waited
+ * longer than max-delay (counted from when it connected, for changes it resumed from), or
+ * has been overwritten in the ring. A burst of changes is fine as long as the client keeps
+ * reading, but a slow client does not hold a sender for long. It can reconnect and resume
+ * while its sequence is still in the ring. Connections are capped at max-connections.
+ */
+@Service
+@Slf4j
+public class UserChangeStream {
+
+    /** Name of the event telling a client that changes were lost and it must resynchronize */
+    public static final String RESET_EVENT = "reset";
+
+    private static final int SEND_BATCH = 256;
+
+    private final ReplayRing<UserChangeDTO> history;
+    private final int maxConnections;
+    private final Duration maxDelay;
+    private final long timeoutMillis;
+    private final long reconnectMillis;
+    private final ExecutorService senders;
+    private final ScheduledExecutorService heartbeats;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Counter sent;
+    private final Counter rejected;
+    private final Counter evicted;
+
+    public UserChangeStream(MeterRegistry meterRegistry,
+                            @Value("${registration.changes.buffer-size:8192}") int bufferSize,
+                            @Value("${registration.changes.max-connections:1000}") int maxConnections,
+                            @Value("${registration.changes.max-delay:30s}") Duration maxDelay,
+                            @Value("${registration.changes.sender-threads:4}") int senderThreads,
+                            @Value("${registration.changes.heartbeat-interval:15s}") Duration heartbeatInterval,
+                            @Value("${registration.changes.timeout:30m}") Duration timeout,
+                            @Value("${registration.changes.reconnect-delay:3s}") Duration reconnectDelay) {
+        // Sequences start at the startup time in microseconds, so IDs handed out before a
+        // restart are older than anything in the new ring and resuming from them resets
+        this.history = new ReplayRing<>(bufferSize, ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now()));
+        this.maxConnections = maxConnections;
+        this.maxDelay = maxDelay;
+        this.timeoutMillis = timeout.toMillis();
+        this.reconnectMillis = reconnectDelay.toMillis();
+        this.senders = Executors.newFixedThreadPool(senderThreads, daemonThreads("change-stream-sender"));
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(daemonThreads("change-stream-heartbeat"));
+        heartbeats.scheduleAtFixedRate(this::heartbeat, heartbeatInterval.toMillis(), heartbeatInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+
+        this.sent = Counter.builder("registration.changes.sent")
+                .description("Change events sent to stream subscribers")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("registration.changes.rejected")
+                .description("Change stream connections refused at the connection cap")
+                .register(meterRegistry);
+        this.evicted = Counter.builder("registration.changes.evicted")
+                .description("Change stream subscribers disconnected for falling too far behind")
+                .register(meterRegistry);
+        Gauge.builder("registration.changes.subscribers", connections, AtomicInteger::get)
+                .description("Open change stream connections")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record a committed user change and wake the subscribers
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        LocalDateTime committedAt = LocalDateTime.now();
+        history.append(sequence -> UserChangeDTO.builder()
+                .sequence(sequence)
+                .type(event.getType())
+                .userId(event.getUserId())
+                .user(event.getUser())
+                .committedAt(committedAt)
+                .build());
+        subscribers.forEach(this::schedule);
+    }
+
+    /**
+     * Open a change stream
+     * @param lastEventId Sequence of the last change the client received, or null for new changes only
+     * @return Emitter that sends the missed changes, if any, and then every new one
+     * @throws ServiceOverloadedException if max-connections streams are already open
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            rejected.increment();
+            throw new ServiceOverloadedException("Too many change stream connections, please retry later");
+        }
+        long last = history.lastSequence();
+        Long resumeAfter = parseSequence(lastEventId);
+        boolean resumable = resumeAfter != null
+                && resumeAfter >= history.oldestSequence() - 1 && resumeAfter <= last;
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        long cursor = resumable ? resumeAfter : last;
+        Subscriber subscriber = new Subscriber(emitter, cursor, resumeAfter != null && !resumable);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+        subscribers.add(subscriber);
+        schedule(subscriber);
+        log.debug("Change stream opened after sequence {} ({} open)", subscriber.cursor, connections.get());
+        return emitter;
+    }
+
+    /**
+     * Close every stream; clients reconnect with their last sequence
+     */
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    private void heartbeat() {
+        subscribers.forEach(subscriber -> {
+            subscriber.heartbeatDue = true;
+            schedule(subscriber);
+        });
+    }
+
+    /**
+     * Drain a subscriber on the sender pool unless a drain is already queued or running
+     */
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.scheduled.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            subscriber.sendPending();
+        } catch (IOException | IllegalStateException e) {
+            // The client went away or the emitter already completed
+            log.debug("Change stream closed: {}", e.getMessage());
+            remove(subscriber);
+            return;
+        }
+        subscriber.scheduled.set(false);
+        // A change appended after the last read would otherwise wait for the next one
+        if (subscriber.isOpen() && history.lastSequence() > subscriber.cursor) {
+            schedule(subscriber);
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            connections.decrementAndGet();
+        }
+    }
+
+    private static Long parseSequence(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * One open stream; only the thread draining it touches its cursor
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final List<UserChangeDTO> batch = new ArrayList<>(SEND_BATCH);
+        private final LocalDateTime connectedAt = LocalDateTime.now();
+        private volatile long cursor;
+        private volatile boolean heartbeatDue;
+        private boolean resetDue;
+        private boolean opened;
+
+        private Subscriber(SseEmitter emitter, long cursor, boolean resetDue) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+            this.resetDue = resetDue;
+        }
+
+        private boolean isOpen() {
+            return subscribers.contains(this);
+        }
+
+        /**
+         * Send everything the ring holds after the cursor, one flush per batch
+         */
+        private void sendPending() throws IOException {
+            if (!opened) {
+                opened = true;
+                // Commits the response so the client knows it is connected before any change
+                emitter.send(SseEmitter.event().reconnectTime(reconnectMillis).comment("connected"));
+            }
+            if (resetDue) {
+                resetDue = false;
+                sendReset();
+            }
+            while (isOpen() && history.lastSequence() > cursor) {
+                batch.clear();
+                if (!history.readAfter(cursor, SEND_BATCH, batch) || isTooLate(batch.get(0))) {
+                    evict();
+                    return;
+                }
+                Set<ResponseBodyEmitter.DataWithMediaType> events = new LinkedHashSet<>();
+                for (UserChangeDTO change : batch) {
+                    events.addAll(SseEmitter.event()
+                            .id(String.valueOf(change.getSequence()))
+                            .data(change, MediaType.APPLICATION_JSON)
+                            .build());
+                }
+                emitter.send(events);
+                cursor = batch.get(batch.size() - 1).getSequence();
+                sent.increment(batch.size());
+                heartbeatDue = false;
+            }
+            if (heartbeatDue) {
+                heartbeatDue = false;
+                emitter.send(SseEmitter.event().comment("keep-alive"));
+            }
+        }
+
+        /**
+         * Tell the client its last sequence is gone and continue from the newest change
+         */
+        private void sendReset() throws IOException {
+            cursor = history.lastSequence();
+            emitter.send(SseEmitter.event()
+                    .name(RESET_EVENT)
+                    .id(String.valueOf(cursor))
+                    .data(Map.of("sequence", cursor), MediaType.APPLICATION_JSON));
+        }
+
+        private boolean isTooLate(UserChangeDTO oldestPending) {
+            LocalDateTime waitingSince = oldestPending.getCommittedAt().isAfter(connectedAt)
+                    ? oldestPending.getCommittedAt() : connectedAt;
+            return Duration.between(waitingSince, LocalDateTime.now()).compareTo(maxDelay) > 0;
+        }
+
+        private void evict() {
+            log.debug("Change stream disconnected {} changes behind", history.lastSequence() - cursor);
+            evicted.increment();
+            remove(this);
+            emitter.complete();
+        }
+    }
+}
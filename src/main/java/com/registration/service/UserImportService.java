@@ -0,0 +1,594 @@
+package com.registration.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.registration.dto.BatchItemResultDTO;
+import com.registration.dto.BatchItemStatus;
+import com.registration.dto.BatchRegistrationResultDTO;
+import com.registration.dto.ImportJobDTO;
+import com.registration.dto.ImportJobStatus;
+import com.registration.dto.UserRegistrationDTO;
+import com.registration.exception.DuplicateResourceException;
+import com.registration.exception.InvalidRequestException;
+import com.registration.exception.ResourceNotFoundException;
+import com.registration.exception.ServiceOverloadedException;
+import com.registration.util.CsvReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk user import from CSV files
+ * An upload is stored under the import directory and processed by a single worker
+ * thread one chunk at a time. Rows are parsed as a stream and emails or usernames that
+ * repeat within the file are rejected; each chunk then goes through
+ * {@link UserService#registerUsers}, which validates it in parallel, checks the database
+ * with set lookups, hashes on the hashing executor and inserts in one transaction.
+ *
+ * Progress is checkpointed to a JSON file after every committed chunk and failed rows
+ * are appended to a CSV error report, so a job that fails, or is cut short by a restart,
+ * can be resumed from its last checkpoint. If the process dies between a chunk's commit
+ * and its checkpoint, the re-run reports that chunk's rows as already registered.
+ */
+@Service
+@Slf4j
+public class UserImportService {
+
+    private static final int MAX_OVERLOAD_RETRIES = 5;
+
+    /** CSV columns by normalized header name (lower case, letters and digits only) */
+    private static final Map<String, BiConsumer<UserRegistrationDTO, String>> COLUMNS = Map.ofEntries(
+            Map.entry("firstname", UserRegistrationDTO::setFirstName),
+            Map.entry("lastname", UserRegistrationDTO::setLastName),
+            Map.entry("username", UserRegistrationDTO::setUsername),
+            Map.entry("email", UserRegistrationDTO::setEmail),
+            Map.entry("password", UserRegistrationDTO::setPassword),
+            Map.entry("confirmpassword", UserRegistrationDTO::setConfirmPassword),
+            Map.entry("phonenumber", UserRegistrationDTO::setPhoneNumber),
+            Map.entry("dateofbirth", (dto, value) -> dto.setDateOfBirth(value == null ? null : LocalDate.parse(value))),
+            Map.entry("gender", UserRegistrationDTO::setGender),
+            Map.entry("address", UserRegistrationDTO::setAddress),
+            Map.entry("city", UserRegistrationDTO::setCity),
+            Map.entry("state", UserRegistrationDTO::setState),
+            Map.entry("postalcode", UserRegistrationDTO::setPostalCode),
+            Map.entry("country", UserRegistrationDTO::setCountry));
+
+    private static final Set<String> REQUIRED_COLUMNS = Set.of(
+            "firstname", "lastname", "username", "email", "password", "phonenumber", "dateofbirth", "gender");
+
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final int chunkSize;
+    private final ThreadPoolExecutor worker;
+    private final Map<String, JobCheckpoint> jobs = new ConcurrentHashMap<>();
+    private final Counter createdCounter;
+    private final Counter failedCounter;
+
+    public UserImportService(UserService userService,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${registration.import.directory:data/imports}") Path directory,
+                             @Value("${registration.import.chunk-size:500}") int chunkSize,
+                             @Value("${registration.import.queue-capacity:16}") int queueCapacity) {
+        if (chunkSize < 1 || chunkSize > 1000) {
+            throw new IllegalArgumentException("registration.import.chunk-size must be between 1 and 1000");
+        }
+        this.userService = userService;
+        this.objectMapper = objectMapper;
+        this.directory = directory;
+        this.chunkSize = chunkSize;
+        this.worker = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "user-import");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.createdCounter = rowCounter(meterRegistry, "created");
+        this.failedCounter = rowCounter(meterRegistry, "failed");
+    }
+
+    /**
+     * Load the jobs of earlier runs; jobs that were queued or running are marked failed
+     * so they can be resumed
+     */
+    @PostConstruct
+    public void recover() throws IOException {
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.json")) {
+            for (Path file : files) {
+                JobCheckpoint checkpoint = objectMapper.readValue(file.toFile(), JobCheckpoint.class);
+                ImportJobDTO job = checkpoint.getJob();
+                if (job.getStatus() == ImportJobStatus.QUEUED || job.getStatus() == ImportJobStatus.RUNNING) {
+                    checkpoint = new JobCheckpoint(job.toBuilder()
+                            .status(ImportJobStatus.FAILED)
+                            .message("Interrupted by a restart; resume to continue")
+                            .build(), checkpoint.getErrorReportBytes());
+                    save(checkpoint);
+                }
+                jobs.put(job.getJobId(), checkpoint);
+            }
+        }
+        if (!jobs.isEmpty()) {
+            log.info("Loaded {} import jobs from {}", jobs.size(), directory);
+        }
+    }
+
+    /**
+     * Store an uploaded CSV file and queue it for import
+     * @param file CSV file with a header row
+     * @return Queued job
+     * @throws ServiceOverloadedException if too many imports are already queued
+     */
+    public ImportJobDTO submit(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new InvalidRequestException("A non-empty CSV file is required");
+        }
+        String jobId = UUID.randomUUID().toString();
+        try (InputStream in = file.getInputStream()) {
+            Files.copy(in, uploadPath(jobId));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store upload for import " + jobId, e);
+        }
+        ImportJobDTO job = ImportJobDTO.builder()
+                .jobId(jobId)
+                .status(ImportJobStatus.QUEUED)
+                .fileName(file.getOriginalFilename())
+                .submittedAt(LocalDateTime.now())
+                .build();
+        update(new JobCheckpoint(job, 0));
+        try {
+            schedule(jobId);
+        } catch (ServiceOverloadedException e) {
+            jobs.remove(jobId);
+            deleteQuietly(uploadPath(jobId));
+            deleteQuietly(checkpointPath(jobId));
+            throw e;
+        }
+        log.info("Queued import {} of {} ({} bytes)", jobId, file.getOriginalFilename(), file.getSize());
+        return job;
+    }
+
+    /**
+     * Continue a failed job from its last checkpoint
+     * @param jobId Job ID
+     * @return Queued job
+     */
+    public ImportJobDTO resume(String jobId) {
+        JobCheckpoint checkpoint = jobs.computeIfPresent(jobId, (id, current) -> {
+            if (current.getJob().getStatus() != ImportJobStatus.FAILED) {
+                throw new InvalidRequestException("Only failed imports can be resumed; import " + id
+                        + " is " + current.getJob().getStatus());
+            }
+            return new JobCheckpoint(current.getJob().toBuilder()
+                    .status(ImportJobStatus.QUEUED)
+                    .message(null)
+                    .build(), current.getErrorReportBytes());
+        });
+        if (checkpoint == null) {
+            throw new ResourceNotFoundException("Import not found: " + jobId);
+        }
+        save(checkpoint);
+        try {
+            schedule(jobId);
+        } catch (ServiceOverloadedException e) {
+            fail(jobId, e.getMessage());
+            throw e;
+        }
+        log.info("Resuming import {} after row {}", jobId, checkpoint.getJob().getRowsProcessed());
+        return checkpoint.getJob();
+    }
+
+    /**
+     * Look up a job
+     * @param jobId Job ID
+     * @return Optional containing the job if known
+     */
+    public Optional<ImportJobDTO> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(JobCheckpoint::getJob);
+    }
+
+    /**
+     * Locate a job's error report
+     * A CSV of row, status and message for every rejected row; the row number counts the
+     * header as row 1. It grows while the job runs.
+     * @param jobId Job ID
+     * @return Optional containing the report path if the job is known and has started
+     */
+    public Optional<Path> getErrorReport(String jobId) {
+        return jobs.containsKey(jobId) ? Optional.of(errorReportPath(jobId)).filter(Files::exists) : Optional.empty();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Interrupts the running job; it is marked failed and can be resumed after the restart
+        worker.shutdownNow();
+    }
+
+    private void schedule(String jobId) {
+        try {
+            worker.execute(() -> run(jobId));
+        } catch (RejectedExecutionException e) {
+            throw new ServiceOverloadedException("Too many imports are queued, please retry later", e);
+        }
+    }
+
+    private void run(String jobId) {
+        JobCheckpoint checkpoint = jobs.get(jobId);
+        ImportJobDTO job = checkpoint.getJob();
+        job = job.toBuilder()
+                .status(ImportJobStatus.RUNNING)
+                .startedAt(job.getStartedAt() != null ? job.getStartedAt() : LocalDateTime.now())
+                .build();
+        update(new JobCheckpoint(job, checkpoint.getErrorReportBytes()));
+        try {
+            job = importRows(job, checkpoint.getErrorReportBytes());
+            update(new JobCheckpoint(job.toBuilder()
+                    .status(ImportJobStatus.COMPLETED)
+                    .completedAt(LocalDateTime.now())
+                    .build(), jobs.get(jobId).getErrorReportBytes()));
+            log.info("Import {} completed: {} created, {} failed", jobId, job.getCreated(), job.getFailed());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(jobId, "Interrupted by shutdown; resume to continue");
+        } catch (IOException | RuntimeException e) {
+            log.error("Import {} failed after row {}", jobId, jobs.get(jobId).getJob().getRowsProcessed(), e);
+            fail(jobId, e.getMessage());
+        }
+    }
+
+    private ImportJobDTO importRows(ImportJobDTO job, long errorReportBytes) throws IOException, InterruptedException {
+        String jobId = job.getJobId();
+        try (CsvReader csv = new CsvReader(Files.newBufferedReader(uploadPath(jobId), StandardCharsets.UTF_8));
+             FileChannel errorChannel = FileChannel.open(errorReportPath(jobId),
+                     StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // Drop report lines written after the checkpoint; their rows are processed again
+            errorChannel.truncate(errorReportBytes);
+            errorChannel.position(errorReportBytes);
+            Writer errors = new BufferedWriter(Channels.newWriter(errorChannel, StandardCharsets.UTF_8));
+            if (errorReportBytes == 0) {
+                errors.write("row,status,message\n");
+            }
+
+            List<String> header = csv.readRecord();
+            if (header == null) {
+                throw new InvalidRequestException("The file is empty");
+            }
+            List<BiConsumer<UserRegistrationDTO, String>> columns = mapColumns(header);
+
+            // Committed rows are skipped, but their keys still count as seen
+            Map<String, Long> seenEmails = new HashMap<>();
+            Map<String, Long> seenUsernames = new HashMap<>();
+            for (long skipped = 0; skipped < job.getRowsProcessed(); skipped++) {
+                List<String> record = csv.readRecord();
+                if (record == null) {
+                    break;
+                }
+                ImportRow row = parse(csv.getRecordNumber(), record, columns);
+                if (row.getStatus() == null) {
+                    claimKeys(row, seenEmails, seenUsernames);
+                }
+            }
+
+            List<ImportRow> chunk = new ArrayList<>(chunkSize);
+            while (true) {
+                List<String> record = csv.readRecord();
+                if (record != null) {
+                    ImportRow row = parse(csv.getRecordNumber(), record, columns);
+                    if (row.getStatus() == null) {
+                        claimKeys(row, seenEmails, seenUsernames);
+                    }
+                    chunk.add(row);
+                }
+                if (chunk.size() == chunkSize || (record == null && !chunk.isEmpty())) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new InterruptedException();
+                    }
+                    registerChunk(chunk);
+                    job = checkpoint(job, chunk, errors, errorChannel);
+                    chunk.clear();
+                }
+                if (record == null) {
+                    return job;
+                }
+            }
+        }
+    }
+
+    /**
+     * Resolve each header cell to the field it fills, or null for an unknown column
+     */
+    private static List<BiConsumer<UserRegistrationDTO, String>> mapColumns(List<String> header) {
+        List<BiConsumer<UserRegistrationDTO, String>> columns = new ArrayList<>(header.size());
+        Set<String> missing = new TreeSet<>(REQUIRED_COLUMNS);
+        for (String name : header) {
+            String key = name.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+            columns.add(COLUMNS.get(key));
+            missing.remove(key);
+        }
+        if (!missing.isEmpty()) {
+            throw new InvalidRequestException("Missing required columns: " + String.join(", ", missing));
+        }
+        return columns;
+    }
+
+    private static ImportRow parse(long rowNumber, List<String> record,
+                                   List<BiConsumer<UserRegistrationDTO, String>> columns) {
+        UserRegistrationDTO dto = new UserRegistrationDTO();
+        ImportRow row = new ImportRow(rowNumber, dto);
+        for (int i = 0; i < columns.size() && i < record.size(); i++) {
+            BiConsumer<UserRegistrationDTO, String> column = columns.get(i);
+            String value = record.get(i).trim();
+            if (column == null) {
+                continue;
+            }
+            try {
+                column.accept(dto, value.isEmpty() ? null : value);
+            } catch (DateTimeParseException e) {
+                row.reject(BatchItemStatus.INVALID, "dateOfBirth: Date of birth must be a date (yyyy-MM-dd)");
+            }
+        }
+        if (dto.getConfirmPassword() == null) {
+            // Files rarely carry a confirmation column; the password confirms itself
+            dto.setConfirmPassword(dto.getPassword());
+        }
+        return row;
+    }
+
+    /**
+     * Reject a row whose email or username appeared earlier in the file; otherwise remember both
+     */
+    private static void claimKeys(ImportRow row, Map<String, Long> seenEmails, Map<String, Long> seenUsernames) {
+        UserRegistrationDTO dto = row.getRegistration();
+        String email = dto.getEmail() == null ? null : dto.getEmail().toLowerCase(Locale.ROOT);
+        String username = dto.getUsername() == null ? null : dto.getUsername().toLowerCase(Locale.ROOT);
+        Long emailRow = email == null ? null : seenEmails.get(email);
+        Long usernameRow = username == null ? null : seenUsernames.get(username);
+        if (emailRow != null) {
+            row.reject(BatchItemStatus.DUPLICATE, "Email repeated in file (first at row " + emailRow + ")");
+        } else if (usernameRow != null) {
+            row.reject(BatchItemStatus.DUPLICATE, "Username repeated in file (first at row " + usernameRow + ")");
+        } else {
+            if (email != null) {
+                seenEmails.put(email, row.getRowNumber());
+            }
+            if (username != null) {
+                seenUsernames.put(username, row.getRowNumber());
+            }
+        }
+    }
+
+    private void registerChunk(List<ImportRow> chunk) throws InterruptedException {
+        List<ImportRow> candidates = chunk.stream()
+                .filter(row -> row.getStatus() == null)
+                .collect(Collectors.toList());
+        if (candidates.isEmpty()) {
+            return;
+        }
+        List<BatchItemResultDTO> results = register(candidates.stream()
+                .map(ImportRow::getRegistration)
+                .collect(Collectors.toList()));
+        for (BatchItemResultDTO item : results) {
+            ImportRow row = candidates.get(item.getIndex());
+            if (item.getStatus() == BatchItemStatus.CREATED) {
+                row.setStatus(BatchItemStatus.CREATED);
+            } else if (item.getValidationErrors() != null) {
+                row.reject(item.getStatus(), item.getValidationErrors().entrySet().stream()
+                        .map(error -> error.getKey() + ": " + error.getValue())
+                        .collect(Collectors.joining("; ")));
+            } else {
+                row.reject(item.getStatus(), item.getMessage());
+            }
+        }
+    }
+
+    private List<BatchItemResultDTO> register(List<UserRegistrationDTO> registrations) throws InterruptedException {
+        try {
+            List<BatchItemResultDTO> results = new ArrayList<>(registerWithRetry(registrations).getResults());
+            // The write of some shard failed while the others committed; retry only its rows
+            for (int i = 0; i < results.size(); i++) {
+                if (results.get(i).getStatus() == BatchItemStatus.FAILED) {
+                    BatchItemResultDTO item = register(List.of(registrations.get(i))).get(0);
+                    item.setIndex(i);
+                    results.set(i, item);
+                }
+            }
+            return results;
+        } catch (DuplicateResourceException e) {
+            if (registrations.size() == 1) {
+                return List.of(BatchItemResultDTO.builder()
+                        .index(0)
+                        .status(BatchItemStatus.DUPLICATE)
+                        .message(e.getMessage())
+                        .build());
+            }
+            // A concurrent registration won a unique key; find the loser by writing one at a time
+            List<BatchItemResultDTO> results = new ArrayList<>(registrations.size());
+            for (int i = 0; i < registrations.size(); i++) {
+                BatchItemResultDTO item = register(List.of(registrations.get(i))).get(0);
+                item.setIndex(i);
+                results.add(item);
+            }
+            return results;
+        }
+    }
+
+    private BatchRegistrationResultDTO registerWithRetry(List<UserRegistrationDTO> registrations)
+            throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return userService.registerUsers(registrations);
+            } catch (ServiceOverloadedException e) {
+                if (attempt >= MAX_OVERLOAD_RETRIES) {
+                    throw e;
+                }
+                log.warn("Hashing is saturated, retrying import chunk of {} (attempt {})", registrations.size(), attempt);
+                Thread.sleep(500L * attempt);
+            }
+        }
+    }
+
+    /**
+     * Append the chunk's failures to the report, make them durable and record the new position
+     */
+    private ImportJobDTO checkpoint(ImportJobDTO job, List<ImportRow> chunk, Writer errors,
+                                    FileChannel errorChannel) throws IOException {
+        long created = 0;
+        for (ImportRow row : chunk) {
+            if (row.getStatus() == BatchItemStatus.CREATED) {
+                created++;
+            } else {
+                errors.write(row.getRowNumber() + "," + row.getStatus() + "," + csvField(row.getMessage()) + "\n");
+            }
+        }
+        errors.flush();
+        errorChannel.force(false);
+        long failed = chunk.size() - created;
+        createdCounter.increment(created);
+        failedCounter.increment(failed);
+
+        ImportJobDTO updated = job.toBuilder()
+                .rowsProcessed(job.getRowsProcessed() + chunk.size())
+                .created(job.getCreated() + created)
+                .failed(job.getFailed() + failed)
+                .build();
+        update(new JobCheckpoint(updated, errorChannel.position()));
+        return updated;
+    }
+
+    private void fail(String jobId, String message) {
+        JobCheckpoint checkpoint = jobs.get(jobId);
+        update(new JobCheckpoint(checkpoint.getJob().toBuilder()
+                .status(ImportJobStatus.FAILED)
+                .message(message)
+                .completedAt(LocalDateTime.now())
+                .build(), checkpoint.getErrorReportBytes()));
+    }
+
+    private void update(JobCheckpoint checkpoint) {
+        jobs.put(checkpoint.getJob().getJobId(), checkpoint);
+        save(checkpoint);
+    }
+
+    /**
+     * Write a checkpoint through a temporary file so a crash leaves the old or the new one
+     */
+    private void save(JobCheckpoint checkpoint) {
+        Path target = checkpointPath(checkpoint.getJob().getJobId());
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            Files.write(temporary, objectMapper.writeValueAsBytes(checkpoint));
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not save import checkpoint " + target, e);
+        }
+    }
+
+    private Path uploadPath(String jobId) {
+        return directory.resolve(jobId + ".csv");
+    }
+
+    private Path errorReportPath(String jobId) {
+        return directory.resolve(jobId + ".errors.csv");
+    }
+
+    private Path checkpointPath(String jobId) {
+        return directory.resolve(jobId + ".json");
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", path, e);
+        }
+    }
+
+    private static Counter rowCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("registration.import.rows")
+                .tag("outcome", outcome)
+                .description("Imported CSV rows by outcome")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Persisted state of a job: its progress and the committed length of its error report
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class JobCheckpoint {
+
+        private ImportJobDTO job;
+        private long errorReportBytes;
+    }
+
+    /**
+     * One parsed data row; a null status means it has not been decided yet
+     */
+    @Data
+    private static class ImportRow {
+
+        private final long rowNumber;
+        private final UserRegistrationDTO registration;
+        private BatchItemStatus status;
+        private String message;
+
+        void reject(BatchItemStatus status, String message) {
+            if (this.status == null) {
+                this.status = status;
+                this.message = message;
+            }
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package com.registration.service;
+
+import com.registration.config.ShardingProperties;
+import com.registration.repository.UserKeyDirectory;
+import com.registration.repository.UserRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Lookups and reservations of user emails and usernames, wherever they are kept
+ *
+ * Without sharding, the users table's unique columns are the source of truth: lookups
+ * query it on the primary, never on a lagging read replica, and claims are no-ops
+ * because the unique constraints reject races when the user is written. In sharding
+ * mode those constraints only cover one shard, so keys are kept in the
+ * {@link UserKeyDirectory}. A write claims its new keys there first (failing if another
+ * user holds them), binds them to the user once it commits, and releases them if it
+ * fails. Each directory entry sits on the shard chosen by the key's hash, so any lookup
+ * or claim touches exactly one shard. A claim left unbound for claim-timeout is taken
+ * over, after checking that no user already holds its key.
+ */
+@Service
+public class UserKeyRegistry {
+
+    private static final String EMAIL_PREFIX = "email:";
+    private static final String USERNAME_PREFIX = "username:";
+
+    private final UserShards shards;
+    private final UserKeyDirectory directory;
+    private final UserRepository userRepository;
+    private final Duration claimTimeout;
+
+    public UserKeyRegistry(UserShards shards, UserKeyDirectory directory, UserRepository userRepository,
+                           ShardingProperties properties) {
+        this.shards = shards;
+        this.directory = directory;
+        this.userRepository = userRepository;
+        this.claimTimeout = properties.getClaimTimeout();
+    }
+
+    /**
+     * @return true if a user holds the email (or is being registered with it)
+     */
+    public boolean emailExists(String email) {
+        if (!shards.isSharded()) {
+            return shards.readPrimary(0, () -> userRepository.existsByEmail(email));
+        }
+        return isTaken(emailKey(email));
+    }
+
+    /**
+     * @return true if a user holds the username (or is being registered with it)
+     */
+    public boolean usernameExists(String username) {
+        if (!shards.isSharded()) {
+            return shards.readPrimary(0, () -> userRepository.existsByUsername(username));
+        }
+        return isTaken(usernameKey(username));
+    }
+
+    /**
+     * Find the ID of the user with the given email
+     */
+    public Optional<Long> findUserIdByEmail(String email) {
+        if (!shards.isSharded()) {
+            return userRepository.findIdByEmail(email);
+        }
+        String key = emailKey(email);
+        return shards.onShard(shardOf(key), () -> directory.findUserId(key));
+    }
+
+    /**
+     * Find the ID of the user with the given username
+     */
+    public Optional<Long> findUserIdByUsername(String username) {
+        if (!shards.isSharded()) {
+            return userRepository.findIdByUsername(username);
+        }
+        String key = usernameKey(username);
+        return shards.onShard(shardOf(key), () -> directory.findUserId(key));
+    }
+
+    /**
+     * Find which of the given emails are taken, with at most one query per shard
+     * @return Taken emails, lower-cased
+     */
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        if (!shards.isSharded()) {
+            return lowerCased(shards.readPrimary(0, () -> userRepository.findExistingEmails(emails)));
+        }
+        return stripPrefix(findExisting(emails.stream().map(UserKeyRegistry::emailKey).toList()), EMAIL_PREFIX);
+    }
+
+    /**
+     * Find which of the given usernames are taken, with at most one query per shard
+     * @return Taken usernames, lower-cased
+     */
+    public Set<String> findExistingUsernames(Collection<String> usernames) {
+        if (!shards.isSharded()) {
+            return lowerCased(shards.readPrimary(0, () -> userRepository.findExistingUsernames(usernames)));
+        }
+        return stripPrefix(findExisting(usernames.stream().map(UserKeyRegistry::usernameKey).toList()),
+                USERNAME_PREFIX);
+    }
+
+    /**
+     * Claim the keys a write is about to give a user
+     * @param email Email to claim, or null if it does not change
+     * @param username Username to claim, or null if it does not change
+     * @return Claim holding both keys, or holding none and naming the one that was taken
+     */
+    public Claim claim(String email, String username) {
+        if (!shards.isSharded()) {
+            return new Claim(null, null, null);
+        }
+        String emailKey = email == null ? null : emailKey(email);
+        String usernameKey = username == null ? null : usernameKey(username);
+        if (emailKey != null && !claimKey(emailKey)) {
+            return new Claim(null, null, Conflict.EMAIL);
+        }
+        if (usernameKey != null && !claimKey(usernameKey)) {
+            if (emailKey != null) {
+                deleteKey(emailKey);
+            }
+            return new Claim(null, null, Conflict.USERNAME);
+        }
+        return new Claim(emailKey, usernameKey, null);
+    }
+
+    /**
+     * Claim the keys of many new users, claiming on all shards in parallel
+     * @param emails Emails of the users
+     * @param usernames Usernames of the users, in the same order
+     * @return Claims in the same order; each holds both keys or none
+     */
+    public List<Claim> claimAll(List<String> emails, List<String> usernames) {
+        List<Claim> claims = new ArrayList<>(emails.size());
+        if (!shards.isSharded() || emails.isEmpty()) {
+            emails.forEach(email -> claims.add(new Claim(null, null, null)));
+            return claims;
+        }
+        List<String> keys = new ArrayList<>(emails.size() * 2);
+        for (int i = 0; i < emails.size(); i++) {
+            keys.add(emailKey(emails.get(i)));
+            keys.add(usernameKey(usernames.get(i)));
+        }
+        List<List<String>> keysByShard = groupByShard(keys);
+        Set<String> claimed = new HashSet<>();
+        LocalDateTime now = LocalDateTime.now();
+        shards.scatter(shard -> shards.onShard(shard, () -> keysByShard.get(shard).stream()
+                        .filter(key -> directory.insertClaim(key, now))
+                        .toList()))
+                .forEach(claimed::addAll);
+        for (String key : keys) {
+            if (!claimed.contains(key) && takeOverAbandonedClaim(key, now)) {
+                claimed.add(key);
+            }
+        }
+
+        for (int i = 0; i < emails.size(); i++) {
+            String emailKey = keys.get(2 * i);
+            String usernameKey = keys.get(2 * i + 1);
+            boolean emailClaimed = claimed.contains(emailKey);
+            boolean usernameClaimed = claimed.contains(usernameKey);
+            if (emailClaimed && usernameClaimed) {
+                claims.add(new Claim(emailKey, usernameKey, null));
+            } else {
+                if (emailClaimed) {
+                    deleteKey(emailKey);
+                }
+                if (usernameClaimed) {
+                    deleteKey(usernameKey);
+                }
+                claims.add(new Claim(null, null, emailClaimed ? Conflict.USERNAME : Conflict.EMAIL));
+            }
+        }
+        return claims;
+    }
+
+    /**
+     * Bind many claims to their users, binding on all shards in parallel
+     * @param claims Claims holding keys
+     * @param userIds IDs of the users, in the same order
+     */
+    public void bindAll(List<Claim> claims, List<Long> userIds) {
+        if (!shards.isSharded()) {
+            return;
+        }
+        List<Map<String, Long>> bindingsByShard = new ArrayList<>(shards.count());
+        for (int shard = 0; shard < shards.count(); shard++) {
+            bindingsByShard.add(new HashMap<>());
+        }
+        for (int i = 0; i < claims.size(); i++) {
+            for (String key : claims.get(i).keys()) {
+                bindingsByShard.get(shardOf(key)).put(key, userIds.get(i));
+            }
+        }
+        shards.scatter(shard -> shards.onShard(shard, () -> {
+            Map<String, Long> bindings = bindingsByShard.get(shard);
+            if (!bindings.isEmpty()) {
+                directory.bindAll(bindings);
+            }
+            return null;
+        }));
+    }
+
+    /**
+     * Give up keys a user no longer holds, after its delete or key change commits
+     * @param email Email to release, or null
+     * @param username Username to release, or null
+     */
+    public void release(String email, String username) {
+        if (!shards.isSharded()) {
+            return;
+        }
+        if (email != null) {
+            deleteKey(emailKey(email));
+        }
+        if (username != null) {
+            deleteKey(usernameKey(username));
+        }
+    }
+
+    private boolean isTaken(String key) {
+        return shards.onShard(shardOf(key), () -> !directory.findExisting(List.of(key)).isEmpty());
+    }
+
+    private Set<String> findExisting(List<String> keys) {
+        List<List<String>> keysByShard = groupByShard(keys);
+        Set<String> existing = new HashSet<>();
+        shards.scatter(shard -> keysByShard.get(shard).isEmpty() ? List.<String>of()
+                        : shards.onShard(shard, () -> directory.findExisting(keysByShard.get(shard))))
+                .forEach(existing::addAll);
+        return existing;
+    }
+
+    private boolean claimKey(String key) {
+        LocalDateTime now = LocalDateTime.now();
+        return shards.onShard(shardOf(key), () -> directory.insertClaim(key, now)) || takeOverAbandonedClaim(key, now);
+    }
+
+    /**
+     * Take over a claim left behind by a registration that stopped between claiming and
+     * binding. If it stopped after its user committed, the claim is bound to that user
+     * instead, so the key stays taken.
+     * @return true if the key is now claimed for the caller
+     */
+    private boolean takeOverAbandonedClaim(String key, LocalDateTime now) {
+        int shard = shardOf(key);
+        LocalDateTime claimedBefore = now.minus(claimTimeout);
+        if (!shards.onShard(shard, () -> directory.isAbandonedClaim(key, claimedBefore))) {
+            return false;
+        }
+        Optional<Long> holder = findHolder(key);
+        return shards.onShard(shard, () -> {
+            if (holder.isPresent()) {
+                directory.bind(key, holder.get());
+                return false;
+            }
+            return directory.deleteAbandonedClaim(key, claimedBefore) && directory.insertClaim(key, now);
+        });
+    }
+
+    /**
+     * Find the user holding a key in the users tables: on the email's home shard for an
+     * email, on every shard in turn for a username
+     */
+    private Optional<Long> findHolder(String key) {
+        if (key.startsWith(EMAIL_PREFIX)) {
+            String email = key.substring(EMAIL_PREFIX.length());
+            return shards.onShard(shards.shardOfKey(email), () -> userRepository.findIdByEmail(email));
+        }
+        String username = key.substring(USERNAME_PREFIX.length());
+        for (int shard = 0; shard < shards.count(); shard++) {
+            Optional<Long> holder = shards.onShard(shard, () -> userRepository.findIdByUsername(username));
+            if (holder.isPresent()) {
+                return holder;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private void deleteKey(String key) {
+        shards.onShard(shardOf(key), () -> {
+            directory.delete(key);
+            return null;
+        });
+    }
+
+    private List<List<String>> groupByShard(List<String> keys) {
+        List<List<String>> keysByShard = new ArrayList<>(shards.count());
+        for (int shard = 0; shard < shards.count(); shard++) {
+            keysByShard.add(new ArrayList<>());
+        }
+        keys.forEach(key -> keysByShard.get(shardOf(key)).add(key));
+        return keysByShard;
+    }
+
+    private int shardOf(String key) {
+        return shards.shardOfKey(key);
+    }
+
+    private static String emailKey(String email) {
+        return EMAIL_PREFIX + email.toLowerCase(Locale.ROOT);
+    }
+
+    private static String usernameKey(String username) {
+        return USERNAME_PREFIX + username.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> lowerCased(List<String> values) {
+        return values.stream().map(value -> value.toLowerCase(Locale.ROOT)).collect(Collectors.toSet());
+    }
+
+    private static Set<String> stripPrefix(Set<String> keys, String prefix) {
+        return keys.stream().map(key -> key.substring(prefix.length())).collect(Collectors.toSet());
+    }
+
+    /**
+     * Key that kept a claim from being made
+     */
+    public enum Conflict {
+        EMAIL,
+        USERNAME
+    }
+
+    /**
+     * Keys reserved for one user's write
+     */
+    public final class Claim {
+
+        private final String emailKey;
+        private final String usernameKey;
+        private final Conflict conflict;
+
+        private Claim(String emailKey, String usernameKey, Conflict conflict) {
+            this.emailKey = emailKey;
+            this.usernameKey = usernameKey;
+            this.conflict = conflict;
+        }
+
+        /**
+         * @return Key that was already taken, or null if the claim holds its keys
+         */
+        public Conflict getConflict() {
+            return conflict;
+        }
+
+        /**
+         * Point the claimed keys at the user, once its write has committed
+         */
+        public void bind(long userId) {
+            for (String key : keys()) {
+                shards.onShard(shardOf(key), () -> {
+                    directory.bind(key, userId);
+                    return null;
+                });
+            }
+        }
+
+        /**
+         * Give the claimed keys up, after the write failed
+         */
+        public void release() {
+            keys().forEach(UserKeyRegistry.this::deleteKey);
+        }
+
+        private List<String> keys() {
+            return Stream.of(emailKey, usernameKey).filter(Objects::nonNull).toList();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.registration.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.registration.dto.UserResponseDTO;
+import com.registration.event.UserChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of user lookups
+ * Users are cached by ID; email and username map to an ID and the cached user is
+ * checked against the requested key, so a stale secondary mapping can never
+ * return the wrong user.
+ *
+ * Entries are loaded with a computing get and invalidated after the writing
+ * transaction commits. An invalidation waits for an in-flight load of the same
+ * ID, so a value read before the commit cannot be stored after it.
+ * Cached DTOs are shared between callers and must be treated as read-only.
+ */
+@Service
+@Slf4j
+public class UserLookupCache {
+
+    private final boolean enabled;
+    private final Cache<Long, UserResponseDTO> usersById;
+    private final Cache<String, Long> idsByEmail;
+    private final Cache<String, Long> idsByUsername;
+    private final Timer loadTimer;
+
+    public UserLookupCache(MeterRegistry meterRegistry,
+                           @Value("${registration.cache.enabled:true}") boolean enabled,
+                           @Value("${registration.cache.maximum-size:10000}") long maximumSize,
+                           @Value("${registration.cache.ttl:10m}") Duration ttl) {
+        this.enabled = enabled;
+        this.usersById = build(maximumSize, ttl);
+        this.idsByEmail = build(maximumSize, ttl);
+        this.idsByUsername = build(maximumSize, ttl);
+        CaffeineCacheMetrics.monitor(meterRegistry, usersById, "users.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, idsByEmail, "users.byEmail");
+        CaffeineCacheMetrics.monitor(meterRegistry, idsByUsername, "users.byUsername");
+        // Caffeine only reports load times for loading caches, so time the loads here
+        this.loadTimer = Timer.builder("registration.cache.load")
+                .description("Time to load a user into the lookup cache on a miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get a user by ID, loading it on a miss
+     * @param userId User ID
+     * @param loader Loads the user; returns null if not found (absent users are not cached)
+     * @return Optional containing the user if found
+     */
+    public Optional<UserResponseDTO> getById(Long userId, Function<Long, UserResponseDTO> loader) {
+        if (!enabled) {
+            return Optional.ofNullable(loader.apply(userId));
+        }
+        return Optional.ofNullable(usersById.get(userId, id -> loadTimer.record(() -> loader.apply(id))));
+    }
+
+    /**
+     * Get a user by ID only if it is cached
+     * @param userId User ID
+     * @return Optional containing the cached user
+     */
+    public Optional<UserResponseDTO> peek(Long userId) {
+        return enabled ? Optional.ofNullable(usersById.getIfPresent(userId)) : Optional.empty();
+    }
+
+    /**
+     * Get a user by email, loading it on a miss
+     * @param email User email
+     * @param idLookup Resolves the email to a user ID
+     * @param loader Loads the user by ID
+     * @return Optional containing the user if found
+     */
+    public Optional<UserResponseDTO> getByEmail(String email, Function<String, Optional<Long>> idLookup,
+                                                Function<Long, UserResponseDTO> loader) {
+        return getBySecondaryKey(idsByEmail, email, idLookup, loader, UserResponseDTO::getEmail);
+    }
+
+    /**
+     * Get a user by username, loading it on a miss
+     * @param username User username
+     * @param idLookup Resolves the username to a user ID
+     * @param loader Loads the user by ID
+     * @return Optional containing the user if found
+     */
+    public Optional<UserResponseDTO> getByUsername(String username, Function<String, Optional<Long>> idLookup,
+                                                   Function<Long, UserResponseDTO> loader) {
+        return getBySecondaryKey(idsByUsername, username, idLookup, loader, UserResponseDTO::getUsername);
+    }
+
+    /**
+     * Invalidate everything cached for a user once its change has committed
+     * Runs outside a transaction too, for writes made without one
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.getUserId() != null) {
+            usersById.invalidate(event.getUserId());
+        }
+        if (event.getPreviousEmail() != null) {
+            idsByEmail.invalidate(event.getPreviousEmail());
+        }
+        if (event.getPreviousUsername() != null) {
+            idsByUsername.invalidate(event.getPreviousUsername());
+        }
+        log.debug("Invalidated cached user {} after {}", event.getUserId(), event.getType());
+    }
+
+    private Optional<UserResponseDTO> getBySecondaryKey(Cache<String, Long> ids, String key,
+                                                        Function<String, Optional<Long>> idLookup,
+                                                        Function<Long, UserResponseDTO> loader,
+                                                        Function<UserResponseDTO, String> keyOf) {
+        if (!enabled) {
+            return idLookup.apply(key).map(loader);
+        }
+        Long userId = ids.get(key, k -> idLookup.apply(k).orElse(null));
+        if (userId == null) {
+            return Optional.empty();
+        }
+        Optional<UserResponseDTO> user = getById(userId, loader);
+        if (user.isPresent() && keyOf.apply(user.get()).equalsIgnoreCase(key)) {
+            return user;
+        }
+
+        // The key moved to another user or the user is gone; resolve it again
+        ids.invalidate(key);
+        return idLookup.apply(key)
+                .flatMap(id -> getById(id, loader))
+                .filter(found -> keyOf.apply(found).equalsIgnoreCase(key));
+    }
+
+    private static <K, V> Cache<K, V> build(long maximumSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                // Run eviction upkeep on the calling thread; handing it to the common pool
+                // costs a context switch per read on small hosts
+                .executor(Runnable::run)
+                .build();
+    }
+}
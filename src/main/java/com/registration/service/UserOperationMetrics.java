@@ -0,0 +1,132 @@
+package com.registration.service;
+
+import com.registration.exception.DuplicateResourceException;
+import com.registration.exception.InvalidRequestException;
+import com.registration.exception.ResourceNotFoundException;
+import com.registration.exception.ServiceOverloadedException;
+import com.registration.util.ServerTiming;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Timers and counters for user service operations
+ *
+ * registration.user.operation times each call by operation and outcome;
+ * registration.user.phase times the validation, uniqueness, hashing, db_write and
+ * mapping steps inside an operation; registration.user.failures counts failed calls
+ * by operation and outcome. Every timer publishes a percentile histogram.
+ * Phases and whole calls are also added to the request's Server-Timing, if it is timed.
+ */
+@Component
+public class UserOperationMetrics {
+
+    public static final String VALIDATION = "validation";
+    public static final String UNIQUENESS = "uniqueness";
+    public static final String HASHING = "hashing";
+    public static final String DB_WRITE = "db_write";
+    public static final String MAPPING = "mapping";
+
+    public static final String SUCCESS = "success";
+
+    private final MeterRegistry meterRegistry;
+
+    /** Meters by "operation/phase" or "operation/outcome", so the hot path skips the registry lookup */
+    private final Map<String, Timer> phaseTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> operationTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> failureCounters = new ConcurrentHashMap<>();
+
+    public UserOperationMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Time one phase of an operation
+     * @param operation UserService method name
+     * @param phase One of the phase constants
+     * @param work Phase body
+     * @return Result of the phase body
+     */
+    public <T> T phase(String operation, String phase, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            long duration = System.nanoTime() - start;
+            phaseTimers.computeIfAbsent(operation + '/' + phase,
+                    key -> Timer.builder("registration.user.phase")
+                            .description("Time spent in one phase of a user service operation")
+                            .tag("operation", operation)
+                            .tag("phase", phase)
+                            .publishPercentileHistogram()
+                            .register(meterRegistry))
+                    .record(duration, TimeUnit.NANOSECONDS);
+            ServerTiming.record(phase, duration);
+        }
+    }
+
+    /**
+     * Time one phase of an operation that returns nothing
+     */
+    public void phase(String operation, String phase, Runnable work) {
+        phase(operation, phase, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Record a completed operation
+     * @param operation UserService method name
+     * @param durationNanos Wall-clock time of the call
+     * @param failure Exception the call ended with, or null on success
+     */
+    public void recordOperation(String operation, long durationNanos, Throwable failure) {
+        String outcome = outcome(failure);
+        String key = operation + '/' + outcome;
+        operationTimers.computeIfAbsent(key, k -> Timer.builder("registration.user.operation")
+                        .description("Time spent in a user service operation, including its transaction")
+                        .tag("operation", operation)
+                        .tag("outcome", outcome)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry))
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+        ServerTiming.record("service", durationNanos);
+        if (failure != null) {
+            failureCounters.computeIfAbsent(key, k -> Counter.builder("registration.user.failures")
+                            .description("User service operations that ended with an exception")
+                            .tag("operation", operation)
+                            .tag("outcome", outcome)
+                            .register(meterRegistry))
+                    .increment();
+        }
+    }
+
+    /**
+     * Outcome tag for an exception: duplicate, not_found, invalid, overloaded or error
+     */
+    static String outcome(Throwable failure) {
+        if (failure == null) {
+            return SUCCESS;
+        }
+        if (failure instanceof DuplicateResourceException) {
+            return "duplicate";
+        }
+        if (failure instanceof ResourceNotFoundException) {
+            return "not_found";
+        }
+        if (failure instanceof InvalidRequestException) {
+            return "invalid";
+        }
+        if (failure instanceof ServiceOverloadedException) {
+            return "overloaded";
+        }
+        return "error";
+    }
+}
@@ -0,0 +1,38 @@
+package com.registration.service;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every call made through the {@link UserService} interface
+ * Ordered ahead of the transaction interceptor, so a transactional operation's time
+ * includes acquiring its connection and committing.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class UserOperationMetricsAspect {
+
+    private final UserOperationMetrics metrics;
+
+    @Around("execution(* com.registration.service.UserService.*(..))")
+    public Object timeOperation(ProceedingJoinPoint joinPoint) throws Throwable {
+        String operation = joinPoint.getSignature().getName();
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            metrics.recordOperation(operation, System.nanoTime() - start, failure);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.registration.service;
+
+import com.registration.dto.UserResponseDTO;
+import com.registration.event.UserChangedEvent;
+import com.registration.repository.UserRepository;
+import com.registration.repository.projection.UserSearchFields;
+import com.registration.util.TrigramIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * In-memory trigram search over first name, last name, username and email
+ * Loaded from the database once the application is ready and kept current from
+ * committed user changes. Changes that commit while the index is loading are
+ * queued and replayed on top of the loaded snapshot, so none are lost or reordered.
+ */
+@Service
+@Slf4j
+public class UserSearchIndex {
+
+    private final UserRepository userRepository;
+    private final UserShards userShards;
+    private final boolean enabled;
+    private final ExecutorService loader;
+    private final Timer searchTimer;
+
+    private final Object lock = new Object();
+
+    /** Index answering searches; null until the load completes */
+    private volatile TrigramIndex index;
+
+    /** Changes committed while loading, replayed once the load completes; null once loaded or failed */
+    private List<UserChangedEvent> pendingChanges = new ArrayList<>();
+
+    public UserSearchIndex(UserRepository userRepository,
+                           UserShards userShards,
+                           MeterRegistry meterRegistry,
+                           @Value("${registration.search.index.enabled:true}") boolean enabled) {
+        this.userRepository = userRepository;
+        this.userShards = userShards;
+        this.enabled = enabled;
+        this.loader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "search-index-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.searchTimer = Timer.builder("registration.search.duration")
+                .description("Time to rank search matches in the trigram index")
+                .register(meterRegistry);
+        Gauge.builder("registration.search.index.documents", this, s -> s.index == null ? 0 : s.index.size())
+                .description("Users in the search index")
+                .register(meterRegistry);
+        Gauge.builder("registration.search.index.trigrams", this, s -> s.index == null ? 0 : s.index.trigramCount())
+                .description("Distinct trigrams in the search index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Load the index from the database once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (enabled) {
+            loader.execute(this::load);
+        }
+    }
+
+    /**
+     * Search users by name, username or email
+     * @param term Search text
+     * @param limit Maximum number of results
+     * @return Matching user IDs, best match first, or empty if the index is not loaded
+     */
+    public Optional<List<Long>> search(String term, int limit) {
+        TrigramIndex current = index;
+        if (current == null) {
+            return Optional.empty();
+        }
+        return Optional.of(searchTimer.record(() -> current.search(term, limit)));
+    }
+
+    /**
+     * Apply a committed user change to the index
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        TrigramIndex current;
+        synchronized (lock) {
+            current = index;
+            if (current == null) {
+                if (pendingChanges != null) {
+                    pendingChanges.add(event);
+                }
+                return;
+            }
+        }
+        apply(current, event);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loader.shutdownNow();
+    }
+
+    private void load() {
+        long start = System.nanoTime();
+        TrigramIndex loaded = new TrigramIndex(4);
+        try {
+            userShards.forEachShard(shard -> userShards.readPrimary(shard, () -> {
+                try (Stream<UserSearchFields> users = userRepository.streamSearchFields()) {
+                    users.forEach(user -> loaded.put(user.getUserId(),
+                            user.getFirstName(), user.getLastName(), user.getUsername(), user.getEmail()));
+                }
+                return null;
+            }));
+        } catch (RuntimeException e) {
+            log.error("Failed to load search index; searches fall back to the database", e);
+            synchronized (lock) {
+                pendingChanges = null;
+            }
+            return;
+        }
+
+        // Replay under the lock so no change slips between the replay and the swap
+        synchronized (lock) {
+            pendingChanges.forEach(event -> apply(loaded, event));
+            pendingChanges = null;
+            index = loaded;
+        }
+        log.info("Search index loaded {} users ({} trigrams) in {} ms",
+                loaded.size(), loaded.trigramCount(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static void apply(TrigramIndex target, UserChangedEvent event) {
+        if (event.getType() == UserChangedEvent.ChangeType.DELETED) {
+            target.remove(event.getUserId());
+            return;
+        }
+        UserResponseDTO user = event.getUser();
+        target.put(user.getUserId(), user.getFirstName(), user.getLastName(), user.getUsername(), user.getEmail());
+    }
+}
@@ -1,11 +1,18 @@
 package com.registration.service;
 
+import com.registration.dto.BatchRegistrationResultDTO;
+import com.registration.dto.CursorPageDTO;
+import com.registration.dto.ResourceVersionDTO;
 import com.registration.dto.UserRegistrationDTO;
 import com.registration.dto.UserResponseDTO;
+import com.registration.dto.UserSortOrder;
 import com.registration.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Service interface for User operations
@@ -20,6 +27,14 @@ public interface UserService {
      */
     UserResponseDTO registerUser(UserRegistrationDTO registrationDTO);
 
+    /**
+     * Register many users at once
+     * Items are validated independently; valid, unique items are inserted in JDBC batches
+     * @param registrationDTOs User registration data, in request order
+     * @return Per-item results in request order
+     */
+    BatchRegistrationResultDTO registerUsers(List<UserRegistrationDTO> registrationDTOs);
+
     /**
      * Get user by ID
      * @param userId User ID
@@ -27,6 +42,28 @@ public interface UserService {
      */
     Optional<UserResponseDTO> getUserById(Long userId);
 
+    /**
+     * Get the version of a user without loading it, for conditional requests
+     * @param userId User ID
+     * @return Version of the user if found; its tag matches versionOf for the loaded user
+     */
+    Optional<ResourceVersionDTO> getUserVersion(Long userId);
+
+    /**
+     * Get the version of a loaded user
+     * @param user User response DTO
+     * @return Version of the user
+     */
+    ResourceVersionDTO versionOf(UserResponseDTO user);
+
+    /**
+     * Get the version of the set of all users or of active users, for conditional requests
+     * The version changes whenever a user in the set is added, changed or removed
+     * @param activeOnly Whether the set holds only active users
+     * @return Version of the set
+     */
+    ResourceVersionDTO getUsersVersion(boolean activeOnly);
+
     /**
      * Get user by email
      * @param email User email
@@ -53,6 +90,32 @@ public interface UserService {
      */
     List<UserResponseDTO> getActiveUsers();
 
+    /**
+     * Get one keyset page of users
+     * @param cursor Opaque cursor from the previous page, or null for the first page
+     * @param limit Maximum number of users in the page
+     * @param sortOrder Ordering for the first page (later pages follow the cursor)
+     * @param active Active flag to match, or null for all users
+     * @return Page of users with the cursor for the next page
+     */
+    CursorPageDTO<UserResponseDTO> getUsersPage(String cursor, int limit, UserSortOrder sortOrder, Boolean active);
+
+    /**
+     * Get one numbered page of users for the web listing
+     * @param filter Text to find in the name, username or email, or null for all users
+     * @param active Active flag to match, or null for all users
+     * @param pageable Page number, size (at most the maximum page size) and sort over listing columns
+     * @return Page of users with the total count
+     */
+    Page<UserResponseDTO> getUsersListingPage(String filter, Boolean active, Pageable pageable);
+
+    /**
+     * Stream every user to the consumer in ID order without materializing the full list
+     * @param consumer Receives each user as it is read from the database
+     * @return Number of users exported
+     */
+    long exportUsers(Consumer<UserResponseDTO> consumer);
+
     /**
      * Update user information
      * @param userId User ID
@@ -74,11 +137,12 @@ public interface UserService {
     void deleteUser(Long userId);
 
     /**
-     * Search users by name
-     * @param searchTerm Search term
-     * @return List of matching users
+     * Search users by first name, last name, username or email
+     * @param searchTerm Search term; whitespace-separated words must all match
+     * @param limit Maximum number of results (capped at 100)
+     * @return Matching users, best match first
      */
-    List<UserResponseDTO> searchUsers(String searchTerm);
+    List<UserResponseDTO> searchUsers(String searchTerm, int limit);
 
     /**
      * Verify if email exists
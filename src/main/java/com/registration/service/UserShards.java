@@ -0,0 +1,210 @@
+package com.registration.service;
+
+import com.registration.config.ShardingProperties;
+import com.registration.datasource.ShardContext;
+import com.registration.datasource.ShardedSequenceGenerator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
+
+/**
+ * Where user data lives, and how to run work against it
+ *
+ * In sharding mode (registration.sharding.shards configured) users are partitioned
+ * across the shards: a new user goes to the shard chosen by a stable hash (CRC-32C) of
+ * its lower-cased email, and its ID carries that shard (see {@link ShardedSequenceGenerator}).
+ * Work on one shard runs with the shard selected for the thread; reads over all users
+ * scatter to every shard in parallel. Without sharding there is a single shard, 0, and
+ * all of this reduces to running the work in place.
+ */
+@Component
+@EnableConfigurationProperties(ShardingProperties.class)
+public class UserShards {
+
+    private final boolean sharded;
+    private final int count;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final ExecutorService scatterExecutor;
+    private final Timer scatterTimer;
+
+    public UserShards(ShardingProperties properties,
+                      PlatformTransactionManager transactionManager,
+                      MeterRegistry meterRegistry) {
+        this.sharded = !properties.getShards().isEmpty();
+        this.count = sharded ? properties.getShards().size() : 1;
+        if (count > ShardedSequenceGenerator.MAX_SHARDS) {
+            throw new IllegalStateException("At most " + ShardedSequenceGenerator.MAX_SHARDS + " shards are supported");
+        }
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+
+        int threads = properties.getScatterThreads() > 0 ? properties.getScatterThreads() : 4 * count;
+        this.scatterExecutor = sharded ? Executors.newFixedThreadPool(threads, new ScatterThreadFactory()) : null;
+        this.scatterTimer = Timer.builder("registration.sharding.scatter")
+                .description("Time to run a read on every shard and gather the results")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return true in sharding mode
+     */
+    public boolean isSharded() {
+        return sharded;
+    }
+
+    /**
+     * @return Number of shards (1 without sharding)
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Shard holding a user
+     * @param userId User ID
+     * @return Shard index, or -1 if no shard could have assigned the ID
+     */
+    public int shardOf(long userId) {
+        if (!sharded) {
+            return 0;
+        }
+        int shard = (int) Math.floorMod(userId, (long) ShardedSequenceGenerator.MAX_SHARDS);
+        return shard < count ? shard : -1;
+    }
+
+    /**
+     * Shard selected by a key's stable hash: a new user's home shard (by email), or the
+     * shard holding a key's directory entry
+     * @param key Email or username, compared case-insensitively
+     * @return Shard index
+     */
+    public int shardOfKey(String key) {
+        if (!sharded) {
+            return 0;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(key.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+        return (int) (crc.getValue() % count);
+    }
+
+    /**
+     * Run work against one shard, outside any transaction
+     */
+    public <T> T onShard(int shard, Supplier<T> work) {
+        return sharded ? ShardContext.callOn(shard, work) : work.get();
+    }
+
+    /**
+     * Run work in a read-only transaction on one shard
+     */
+    public <T> T read(int shard, Supplier<T> work) {
+        return onShard(shard, () -> readTransaction.execute(status -> work.get()));
+    }
+
+    /**
+     * Run a read on one shard's primary, never a read replica, for reads whose result is
+     * cached or decides a write and so must see every committed change
+     */
+    public <T> T readPrimary(int shard, Supplier<T> work) {
+        return write(shard, work);
+    }
+
+    /**
+     * Run work in a read-write transaction on one shard
+     */
+    public <T> T write(int shard, Supplier<T> work) {
+        return onShard(shard, () -> writeTransaction.execute(status -> work.get()));
+    }
+
+    /**
+     * Run work for every shard in turn on the calling thread
+     */
+    public void forEachShard(IntConsumer work) {
+        for (int shard = 0; shard < count; shard++) {
+            work.accept(shard);
+        }
+    }
+
+    /**
+     * Run work for every shard in parallel and gather the results
+     * The work selects its shard itself, usually through {@link #read}.
+     * @param work Work for one shard, given the shard index
+     * @return Results in shard order
+     */
+    public <T> List<T> scatter(IntFunction<T> work) {
+        if (!sharded) {
+            return Collections.singletonList(work.apply(0));
+        }
+        long start = System.nanoTime();
+        List<Future<T>> futures = new ArrayList<>(count);
+        for (int shard = 0; shard < count; shard++) {
+            int target = shard;
+            futures.add(scatterExecutor.submit(() -> work.apply(target)));
+        }
+        List<T> results = new ArrayList<>(count);
+        RuntimeException failure = null;
+        for (Future<T> future : futures) {
+            // Wait for every shard, so no task still runs once the caller moves on
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                futures.forEach(pending -> pending.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for shards", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (failure == null) {
+                    failure = cause instanceof RuntimeException ? (RuntimeException) cause
+                            : new IllegalStateException("Shard query failed", cause);
+                }
+            }
+        }
+        scatterTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scatterExecutor != null) {
+            scatterExecutor.shutdownNow();
+        }
+    }
+
+    private static final class ScatterThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "shard-scatter-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -1,185 +1,914 @@
 package com.registration.service.impl;
 
+import com.registration.dto.BatchItemResultDTO;
+import com.registration.dto.BatchItemStatus;
+import com.registration.dto.BatchRegistrationResultDTO;
+import com.registration.dto.CursorPageDTO;
+import com.registration.dto.ResourceVersionDTO;
+import com.registration.dto.UserCursor;
 import com.registration.dto.UserRegistrationDTO;
 import com.registration.dto.UserResponseDTO;
+import com.registration.dto.UserSortOrder;
 import com.registration.entity.User;
+import com.registration.event.UserChangedEvent;
 import com.registration.exception.DuplicateResourceException;
+import com.registration.exception.InvalidRequestException;
 import com.registration.exception.ResourceNotFoundException;
+import com.registration.mapper.UserMapper;
 import com.registration.repository.UserRepository;
+import com.registration.repository.projection.UserKeys;
+import com.registration.repository.projection.UsersVersion;
+import com.registration.service.AvailabilityIndex;
+import com.registration.service.UserKeyRegistry;
+import com.registration.service.PasswordHashingService;
+import com.registration.service.UserLookupCache;
+import com.registration.service.UserOperationMetrics;
+import com.registration.service.UserSearchIndex;
 import com.registration.service.UserService;
+import com.registration.service.UserShards;
+import com.registration.validation.UserRegistrationValidator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * Implementation of UserService interface
  * Contains business logic for user operations
+ *
+ * Transactions are declared per method. Operations that hash passwords do the
+ * uniqueness checks and hashing first and open a transaction only for the write,
+ * so no pooled connection is held while BCrypt runs.
+ *
+ * Writes time their validation, uniqueness, hashing, mapping and db_write phases
+ * through {@link UserOperationMetrics}; whole calls are timed by its aspect.
+ *
+ * Every query runs on the shard holding its data through {@link UserShards}, and
+ * reads over all users gather from every shard. Without sharding that is the one
+ * database. Emails and usernames are looked up and reserved through {@link UserKeyRegistry}.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
-@Transactional
 public class UserServiceImpl implements UserService {
 
+    /** Upper bound for a single keyset page */
+    public static final int MAX_PAGE_SIZE = 500;
+
+    /** Upper bound for a single search request */
+    public static final int MAX_SEARCH_RESULTS = 100;
+
+    /** Upper bound for a single batch registration request */
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    /** Batches at least this large are validated in parallel */
+    private static final int PARALLEL_VALIDATION_THRESHOLD = 64;
+
+    /** Entity properties the web listing may sort by */
+    private static final Set<String> LISTING_SORT_PROPERTIES = Set.of(
+            "userId", "firstName", "lastName", "username", "email", "city", "isActive", "createdAt");
+
+    /** Lower bound for created_at on the first page; rows are never created before it */
+    private static final LocalDateTime FIRST_CREATED_AT = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private static final Comparator<UserResponseDTO> BY_ID = Comparator.comparing(UserResponseDTO::getUserId);
+
+    private static final Comparator<UserResponseDTO> BY_CREATED_AT = Comparator
+            .comparing(UserResponseDTO::getCreatedAt)
+            .thenComparing(UserResponseDTO::getUserId);
+
+    /** Text order of the listing, close to MySQL's case-insensitive collation */
+    private static final Comparator<String> TEXT_ORDER = Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER);
+
     private final UserRepository userRepository;
-    private final ModelMapper modelMapper;
-    private final PasswordEncoder passwordEncoder;
+    private final UserMapper userMapper;
+    private final PasswordHashingService passwordHashingService;
+    private final AvailabilityIndex availabilityIndex;
+    private final UserLookupCache userLookupCache;
+    private final UserSearchIndex userSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserShards userShards;
+    private final UserKeyRegistry userKeys;
+    private final UserRegistrationValidator validator;
+    private final UserOperationMetrics metrics;
 
     @Override
     public UserResponseDTO registerUser(UserRegistrationDTO registrationDTO) {
-        log.info("Attempting to register user with email: {}", registrationDTO.getEmail());
+        log.debug("Attempting to register user with email: {}", registrationDTO.getEmail());
+        String operation = "registerUser";
+
+        metrics.phase(operation, UserOperationMetrics.UNIQUENESS, () -> {
+            // Validate email uniqueness
+            if (isEmailExists(registrationDTO.getEmail())) {
+                log.error("Email already exists: {}", registrationDTO.getEmail());
+                throw new DuplicateResourceException("Email already registered: " + registrationDTO.getEmail());
+            }
+
+            // Validate username uniqueness
+            if (isUsernameExists(registrationDTO.getUsername())) {
+                log.error("Username already exists: {}", registrationDTO.getUsername());
+                throw new DuplicateResourceException("Username already taken: " + registrationDTO.getUsername());
+            }
+        });
+
+        // Encode password before the transaction opens
+        String encodedPassword = metrics.phase(operation, UserOperationMetrics.HASHING,
+                () -> passwordHashingService.encode(registrationDTO.getPassword()));
+
+        // Map DTO to Entity and save it; the connection is held only for the INSERT
+        User user = metrics.phase(operation, UserOperationMetrics.MAPPING, () -> {
+            User mapped = userMapper.toEntity(registrationDTO);
+            mapped.setPassword(encodedPassword);
+            return mapped;
+        });
+        // Save on the user's home shard, after claiming its keys (a no-op without sharding)
+        int shard = userShards.shardOfKey(registrationDTO.getEmail());
+        UserResponseDTO response = metrics.phase(operation, UserOperationMetrics.DB_WRITE, () -> {
+            UserKeyRegistry.Claim claim = userKeys.claim(registrationDTO.getEmail(), registrationDTO.getUsername());
+            rejectConflict(claim, registrationDTO, "Email already registered: ", "Username already taken: ");
+            UserResponseDTO saved;
+            try {
+                saved = inWriteTransaction(shard, () -> {
+                    User savedUser = userRepository.saveAndFlush(user);
+                    UserResponseDTO registered = userMapper.toResponse(savedUser);
+                    eventPublisher.publishEvent(UserChangedEvent.registered(registered));
+                    return registered;
+                });
+            } catch (RuntimeException e) {
+                claim.release();
+                throw e;
+            }
+            claim.bind(saved.getUserId());
+            return saved;
+        });
+        log.debug("User registered successfully with ID: {}", response.getUserId());
+        return response;
+    }
 
-        // Validate email uniqueness
-        if (userRepository.existsByEmail(registrationDTO.getEmail())) {
-            log.error("Email already exists: {}", registrationDTO.getEmail());
-            throw new DuplicateResourceException("Email already registered: " + registrationDTO.getEmail());
+    @Override
+    public BatchRegistrationResultDTO registerUsers(List<UserRegistrationDTO> registrationDTOs) {
+        if (registrationDTOs == null || registrationDTOs.isEmpty() || registrationDTOs.size() > MAX_BATCH_SIZE) {
+            throw new InvalidRequestException("Batch must contain between 1 and " + MAX_BATCH_SIZE + " users");
+        }
+        log.info("Attempting to register batch of {} users", registrationDTOs.size());
+        String operation = "registerUsers";
+
+        BatchItemResultDTO[] results = new BatchItemResultDTO[registrationDTOs.size()];
+
+        // Validate every item and reject repeats within the batch itself
+        Set<String> batchEmails = new HashSet<>();
+        Set<String> batchUsernames = new HashSet<>();
+        List<Integer> candidates = new ArrayList<>();
+        metrics.phase(operation, UserOperationMetrics.VALIDATION, () -> {
+            // Validation is independent per item, so large batches spread it over the common
+            // fork-join pool; repeats are then found in order so the first occurrence wins
+            IntStream indexes = IntStream.range(0, registrationDTOs.size());
+            if (registrationDTOs.size() >= PARALLEL_VALIDATION_THRESHOLD) {
+                indexes = indexes.parallel();
+            }
+            List<Map<String, String>> validationErrors = indexes
+                    .mapToObj(i -> validate(registrationDTOs.get(i)))
+                    .toList();
+            for (int i = 0; i < registrationDTOs.size(); i++) {
+                UserRegistrationDTO dto = registrationDTOs.get(i);
+                Map<String, String> errors = validationErrors.get(i);
+                if (!errors.isEmpty()) {
+                    results[i] = failedItem(i, BatchItemStatus.INVALID, "Validation failed", errors);
+                } else if (!batchEmails.add(normalizeKey(dto.getEmail()))) {
+                    results[i] = failedItem(i, BatchItemStatus.DUPLICATE,
+                            "Email repeated in batch: " + dto.getEmail(), null);
+                } else if (!batchUsernames.add(normalizeKey(dto.getUsername()))) {
+                    results[i] = failedItem(i, BatchItemStatus.DUPLICATE,
+                            "Username repeated in batch: " + dto.getUsername(), null);
+                } else {
+                    candidates.add(i);
+                }
+            }
+        });
+
+        // Check uniqueness against the database with one set lookup per key,
+        // leaving out keys the availability index knows are free
+        Set<String> existingEmails = new HashSet<>();
+        Set<String> existingUsernames = new HashSet<>();
+        metrics.phase(operation, UserOperationMetrics.UNIQUENESS, () -> {
+            List<String> emails = new ArrayList<>(candidates.size());
+            List<String> usernames = new ArrayList<>(candidates.size());
+            for (Integer i : candidates) {
+                UserRegistrationDTO dto = registrationDTOs.get(i);
+                if (availabilityIndex.mightContainEmail(dto.getEmail())) {
+                    emails.add(dto.getEmail());
+                }
+                if (availabilityIndex.mightContainUsername(dto.getUsername())) {
+                    usernames.add(dto.getUsername());
+                }
+            }
+            if (!emails.isEmpty()) {
+                existingEmails.addAll(userKeys.findExistingEmails(emails));
+            }
+            if (!usernames.isEmpty()) {
+                existingUsernames.addAll(userKeys.findExistingUsernames(usernames));
+            }
+        });
+
+        List<Integer> accepted = new ArrayList<>(candidates.size());
+        List<UserRegistrationDTO> acceptedDTOs = new ArrayList<>(candidates.size());
+        for (Integer i : candidates) {
+            UserRegistrationDTO dto = registrationDTOs.get(i);
+            if (existingEmails.contains(normalizeKey(dto.getEmail()))) {
+                results[i] = failedItem(i, BatchItemStatus.DUPLICATE,
+                        "Email already registered: " + dto.getEmail(), null);
+            } else if (existingUsernames.contains(normalizeKey(dto.getUsername()))) {
+                results[i] = failedItem(i, BatchItemStatus.DUPLICATE,
+                        "Username already taken: " + dto.getUsername(), null);
+            } else {
+                acceptedDTOs.add(dto);
+                accepted.add(i);
+            }
         }
 
-        // Validate username uniqueness
-        if (userRepository.existsByUsername(registrationDTO.getUsername())) {
-            log.error("Username already exists: {}", registrationDTO.getUsername());
-            throw new DuplicateResourceException("Username already taken: " + registrationDTO.getUsername());
+        if (!acceptedDTOs.isEmpty()) {
+            // Hash on the hashing executor before the transaction opens
+            List<String> encodedPasswords = metrics.phase(operation, UserOperationMetrics.HASHING,
+                    () -> passwordHashingService.encodeAll(acceptedDTOs.stream()
+                            .map(UserRegistrationDTO::getPassword)
+                            .collect(Collectors.toList())));
+
+            List<User> users = metrics.phase(operation, UserOperationMetrics.MAPPING, () -> {
+                List<User> mapped = new ArrayList<>(acceptedDTOs.size());
+                for (int j = 0; j < acceptedDTOs.size(); j++) {
+                    User user = userMapper.toEntity(acceptedDTOs.get(j));
+                    user.setPassword(encodedPasswords.get(j));
+                    mapped.add(user);
+                }
+                return mapped;
+            });
+
+            // Claim the accepted keys only now (a no-op without sharding), so a claim is never
+            // older than the write that binds it; a key registered since the check above
+            // makes its item a duplicate
+            List<UserKeyRegistry.Claim> claims = metrics.phase(operation, UserOperationMetrics.UNIQUENESS,
+                    () -> userKeys.claimAll(
+                            acceptedDTOs.stream().map(UserRegistrationDTO::getEmail).toList(),
+                            acceptedDTOs.stream().map(UserRegistrationDTO::getUsername).toList()));
+            for (int j = claims.size() - 1; j >= 0; j--) {
+                UserKeyRegistry.Conflict conflict = claims.get(j).getConflict();
+                if (conflict != null) {
+                    int i = accepted.remove(j);
+                    UserRegistrationDTO dto = acceptedDTOs.remove(j);
+                    users.remove(j);
+                    claims.remove(j);
+                    results[i] = failedItem(i, BatchItemStatus.DUPLICATE, conflict == UserKeyRegistry.Conflict.EMAIL
+                            ? "Email already registered: " + dto.getEmail()
+                            : "Username already taken: " + dto.getUsername(), null);
+                }
+            }
+
+            if (!users.isEmpty()) {
+                List<Inserted> inserted = metrics.phase(operation, UserOperationMetrics.DB_WRITE,
+                        () -> insertAll(users, claims));
+                // Nothing was committed: fail the request as a whole, as a single transaction would
+                if (inserted.stream().allMatch(item -> item.failure() != null)) {
+                    throw inserted.get(0).failure();
+                }
+                for (int j = 0; j < inserted.size(); j++) {
+                    int i = accepted.get(j);
+                    Inserted item = inserted.get(j);
+                    results[i] = item.failure() == null
+                            ? BatchItemResultDTO.builder().index(i).status(BatchItemStatus.CREATED).user(item.user()).build()
+                            : failedItem(i, BatchItemStatus.FAILED, item.failure().getMessage(), null);
+                }
+            }
         }
 
-        // Map DTO to Entity
-        User user = modelMapper.map(registrationDTO, User.class);
+        int created = (int) Stream.of(results).filter(item -> item.getStatus() == BatchItemStatus.CREATED).count();
+        log.info("Batch registration finished: {} created, {} failed", created, registrationDTOs.size() - created);
+        return BatchRegistrationResultDTO.builder()
+                .total(registrationDTOs.size())
+                .created(created)
+                .failed(registrationDTOs.size() - created)
+                .results(List.of(results))
+                .build();
+    }
 
-        // Encode password
-        user.setPassword(passwordEncoder.encode(registrationDTO.getPassword()));
+    /**
+     * Lookups are served from the user cache and are not transactional, so a
+     * cache hit needs no connection; misses load in the repository's own transaction
+     */
+    @Override
+    public Optional<UserResponseDTO> getUserById(Long userId) {
+        log.debug("Fetching user with ID: {}", userId);
+        return userLookupCache.getById(userId, this::loadUser);
+    }
 
-        // Save user
-        User savedUser = userRepository.save(user);
-        log.info("User registered successfully with ID: {}", savedUser.getUserId());
+    /**
+     * A cached user answers without a query; otherwise only the ID and
+     * modification time are read, from the primary like the cache itself
+     */
+    @Override
+    public Optional<ResourceVersionDTO> getUserVersion(Long userId) {
+        Optional<UserResponseDTO> cached = userLookupCache.peek(userId);
+        if (cached.isPresent()) {
+            return cached.map(this::versionOf);
+        }
+        int shard = userShards.shardOf(userId);
+        if (shard < 0) {
+            return Optional.empty();
+        }
+        return userShards.readPrimary(shard, () -> userRepository.findVersionById(userId))
+                .map(version -> userVersion(version.getUserId(), version.getUpdatedAt()));
+    }
 
-        // Map Entity to Response DTO
-        return modelMapper.map(savedUser, UserResponseDTO.class);
+    @Override
+    public ResourceVersionDTO versionOf(UserResponseDTO user) {
+        return userVersion(user.getUserId(), user.getUpdatedAt());
     }
 
+    /**
+     * Summed over the shards: the total count and the latest modification time
+     * The set carries no Last-Modified: the latest updated_at does not advance when a user
+     * leaves the set and goes back in time when that user was the newest, so only the tag,
+     * which also covers the count, validates it
+     */
     @Override
-    @Transactional(readOnly = true)
-    public Optional<UserResponseDTO> getUserById(Long userId) {
-        log.debug("Fetching user with ID: {}", userId);
-        return userRepository.findById(userId)
-                .map(user -> modelMapper.map(user, UserResponseDTO.class));
+    public ResourceVersionDTO getUsersVersion(boolean activeOnly) {
+        List<UsersVersion> versions = userShards.scatter(shard -> userShards.read(shard, () -> activeOnly
+                ? userRepository.findActiveUsersVersion()
+                : userRepository.findUsersVersion()));
+        long count = versions.stream().mapToLong(UsersVersion::getCount).sum();
+        LocalDateTime lastUpdatedAt = versions.stream()
+                .map(UsersVersion::getLastUpdatedAt)
+                .filter(Objects::nonNull)
+                .max(Comparator.naturalOrder())
+                .orElse(null);
+        long lastUpdated = toEpochMicros(lastUpdatedAt);
+        return ResourceVersionDTO.builder()
+                .tag((activeOnly ? "active-" : "all-") + count + "-" + Long.toHexString(lastUpdated))
+                .build();
     }
 
     @Override
-    @Transactional(readOnly = true)
     public Optional<UserResponseDTO> getUserByEmail(String email) {
         log.debug("Fetching user with email: {}", email);
-        return userRepository.findByEmail(email)
-                .map(user -> modelMapper.map(user, UserResponseDTO.class));
+        return userLookupCache.getByEmail(email, userKeys::findUserIdByEmail, this::loadUser);
     }
 
     @Override
-    @Transactional(readOnly = true)
     public Optional<UserResponseDTO> getUserByUsername(String username) {
         log.debug("Fetching user with username: {}", username);
-        return userRepository.findByUsername(username)
-                .map(user -> modelMapper.map(user, UserResponseDTO.class));
+        return userLookupCache.getByUsername(username, userKeys::findUserIdByUsername, this::loadUser);
     }
 
     @Override
-    @Transactional(readOnly = true)
     public List<UserResponseDTO> getAllUsers() {
         log.debug("Fetching all users");
-        return userRepository.findAll().stream()
-                .map(user -> modelMapper.map(user, UserResponseDTO.class))
-                .collect(Collectors.toList());
+        return gather(userShards.scatter(shard -> userShards.read(shard, userRepository::findAllResponses)), BY_ID);
     }
 
     @Override
-    @Transactional(readOnly = true)
     public List<UserResponseDTO> getActiveUsers() {
         log.debug("Fetching active users");
-        return userRepository.findByIsActiveTrue().stream()
-                .map(user -> modelMapper.map(user, UserResponseDTO.class))
-                .collect(Collectors.toList());
+        return gather(userShards.scatter(shard -> userShards.read(shard, userRepository::findActiveResponses)), BY_ID);
     }
 
+    /**
+     * Each shard returns its next page; merged in the listing's order, their head is the next page
+     */
     @Override
-    public UserResponseDTO updateUser(Long userId, UserRegistrationDTO registrationDTO) {
-        log.info("Updating user with ID: {}", userId);
+    public CursorPageDTO<UserResponseDTO> getUsersPage(String cursor, int limit,
+                                                       UserSortOrder sortOrder, Boolean active) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new InvalidRequestException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
 
-        User existingUser = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
+        UserCursor position = null;
+        if (cursor != null && !cursor.isBlank()) {
+            position = UserCursor.decode(cursor);
+            if (!Objects.equals(position.getActive(), active)
+                    || (sortOrder != null && position.getSortOrder() != sortOrder)) {
+                throw new InvalidRequestException("Cursor does not belong to this listing");
+            }
+            sortOrder = position.getSortOrder();
+        } else if (sortOrder == null) {
+            sortOrder = UserSortOrder.ID;
+        }
+        log.debug("Fetching users page: sort={}, active={}, limit={}", sortOrder, active, limit);
+
+        // Read one extra row to learn whether another page exists without a count query
+        Long afterId = position == null ? 0L : position.getLastUserId();
+        Limit fetchLimit = Limit.of(limit + 1);
+        List<UserResponseDTO> rows;
+        if (sortOrder == UserSortOrder.CREATED_AT) {
+            LocalDateTime afterCreatedAt = position == null ? FIRST_CREATED_AT : position.getLastCreatedAt();
+            rows = gather(userShards.scatter(shard -> userShards.read(shard,
+                    () -> findPageOrderByCreatedAt(active, afterCreatedAt, afterId, fetchLimit))), BY_CREATED_AT);
+        } else {
+            rows = gather(userShards.scatter(shard -> userShards.read(shard,
+                    () -> findPageOrderById(active, afterId, fetchLimit))), BY_ID);
+        }
+
+        boolean hasMore = rows.size() > limit;
+        List<UserResponseDTO> items = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            UserResponseDTO last = items.get(items.size() - 1);
+            nextCursor = new UserCursor(sortOrder, active, last.getUserId(),
+                    sortOrder == UserSortOrder.CREATED_AT ? last.getCreatedAt() : null).encode();
+        }
+
+        return CursorPageDTO.<UserResponseDTO>builder()
+                .items(items)
+                .limit(limit)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
 
-        // Check if email is being changed and if it's already taken
-        if (!existingUser.getEmail().equals(registrationDTO.getEmail()) &&
-            userRepository.existsByEmail(registrationDTO.getEmail())) {
-            throw new DuplicateResourceException("Email already in use: " + registrationDTO.getEmail());
+    private List<UserResponseDTO> findPageOrderById(Boolean active, Long afterId, Limit limit) {
+        if (active == null) {
+            return userRepository.findPageOrderById(afterId, limit);
         }
+        return active
+                ? userRepository.findActivePageOrderById(afterId, limit)
+                : userRepository.findInactivePageOrderById(afterId, limit);
+    }
 
-        // Check if username is being changed and if it's already taken
-        if (!existingUser.getUsername().equals(registrationDTO.getUsername()) &&
-            userRepository.existsByUsername(registrationDTO.getUsername())) {
-            throw new DuplicateResourceException("Username already in use: " + registrationDTO.getUsername());
+    private List<UserResponseDTO> findPageOrderByCreatedAt(Boolean active, LocalDateTime afterCreatedAt,
+                                                           Long afterId, Limit limit) {
+        if (active == null) {
+            return userRepository.findPageOrderByCreatedAt(afterCreatedAt, afterId, limit);
         }
+        return active
+                ? userRepository.findActivePageOrderByCreatedAt(afterCreatedAt, afterId, limit)
+                : userRepository.findInactivePageOrderByCreatedAt(afterCreatedAt, afterId, limit);
+    }
 
-        // Update fields
-        modelMapper.map(registrationDTO, existingUser);
-        
-        // Update password if changed
-        if (registrationDTO.getPassword() != null && !registrationDTO.getPassword().isEmpty()) {
-            existingUser.setPassword(passwordEncoder.encode(registrationDTO.getPassword()));
+    /**
+     * With several shards, each returns its rows up to the end of the requested page; the
+     * page is cut from their merge, and the total is the sum of their counts
+     */
+    @Override
+    public Page<UserResponseDTO> getUsersListingPage(String filter, Boolean active, Pageable pageable) {
+        if (pageable.getPageSize() > MAX_PAGE_SIZE) {
+            throw new InvalidRequestException("Page size must be at most " + MAX_PAGE_SIZE);
+        }
+        if (pageable.getOffset() + pageable.getPageSize() > Integer.MAX_VALUE) {
+            throw new InvalidRequestException("Page number is too large: " + pageable.getPageNumber());
         }
+        for (Sort.Order order : pageable.getSort()) {
+            if (!LISTING_SORT_PROPERTIES.contains(order.getProperty())) {
+                throw new InvalidRequestException("Cannot sort users by " + order.getProperty());
+            }
+        }
+        log.debug("Fetching users listing page {}: filter={}, active={}", pageable.getPageNumber(), filter, active);
+        String term = filter == null ? "" : filter.trim();
+        if (!userShards.isSharded()) {
+            return userShards.read(0, () -> userRepository.findListingPage(term, active, pageable));
+        }
+        Pageable head = PageRequest.of(0, (int) (pageable.getOffset() + pageable.getPageSize()), pageable.getSort());
+        List<Page<UserResponseDTO>> pages = userShards.scatter(shard -> userShards.read(shard,
+                () -> userRepository.findListingPage(term, active, head)));
+        List<UserResponseDTO> content = pages.stream()
+                .flatMap(page -> page.getContent().stream())
+                .sorted(listingOrder(pageable.getSort()))
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, pages.stream().mapToLong(Page::getTotalElements).sum());
+    }
+
+    /**
+     * Shard by shard, each streamed in ID order in its own read-only transaction
+     */
+    @Override
+    public long exportUsers(Consumer<UserResponseDTO> consumer) {
+        log.debug("Exporting all users");
+        long[] exported = {0};
+        userShards.forEachShard(shard -> userShards.read(shard, () -> {
+            try (Stream<UserResponseDTO> users = userRepository.streamAllForExport()) {
+                for (UserResponseDTO user : (Iterable<UserResponseDTO>) users::iterator) {
+                    consumer.accept(user);
+                    exported[0]++;
+                }
+            }
+            return null;
+        }));
+        log.info("Exported {} users", exported[0]);
+        return exported[0];
+    }
+
+    @Override
+    public UserResponseDTO updateUser(Long userId, UserRegistrationDTO registrationDTO) {
+        log.debug("Updating user with ID: {}", userId);
+        String operation = "updateUser";
 
-        User updatedUser = userRepository.save(existingUser);
-        log.info("User updated successfully with ID: {}", userId);
+        int shard = shardOfExisting(userId);
+        UserKeys currentKeys = userShards.readPrimary(shard, () -> userRepository.findKeysById(userId))
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
 
-        return modelMapper.map(updatedUser, UserResponseDTO.class);
+        // Encode the new password, if any, before the transaction opens
+        String encodedPassword = registrationDTO.getPassword() != null && !registrationDTO.getPassword().isEmpty()
+                ? metrics.phase(operation, UserOperationMetrics.HASHING,
+                        () -> passwordHashingService.encode(registrationDTO.getPassword()))
+                : null;
+
+        // A changed email or username is claimed first (a no-op without sharding)
+        String newEmail = sameKey(currentKeys.getEmail(), registrationDTO.getEmail()) ? null : registrationDTO.getEmail();
+        String newUsername = sameKey(currentKeys.getUsername(), registrationDTO.getUsername())
+                ? null : registrationDTO.getUsername();
+        UserResponseDTO response = metrics.phase(operation, UserOperationMetrics.DB_WRITE, () -> {
+            UserKeyRegistry.Claim claim = userKeys.claim(newEmail, newUsername);
+            rejectConflict(claim, registrationDTO, "Email already in use: ", "Username already in use: ");
+            UserResponseDTO updated;
+            try {
+                updated = updateOnShard(shard, userId, registrationDTO, encodedPassword);
+            } catch (RuntimeException e) {
+                claim.release();
+                throw e;
+            }
+            claim.bind(userId);
+            userKeys.release(newEmail == null ? null : currentKeys.getEmail(),
+                    newUsername == null ? null : currentKeys.getUsername());
+            return updated;
+        });
+        log.debug("User updated successfully with ID: {}", userId);
+        return response;
     }
 
     @Override
     public void deactivateUser(Long userId) {
-        log.info("Deactivating user with ID: {}", userId);
+        log.debug("Deactivating user with ID: {}", userId);
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
+        userShards.write(shardOfExisting(userId), () -> {
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
 
-        user.setIsActive(false);
-        userRepository.save(user);
+            user.setIsActive(false);
+            User deactivatedUser = userRepository.saveAndFlush(user);
+            eventPublisher.publishEvent(UserChangedEvent.deactivated(userMapper.toResponse(deactivatedUser)));
+            return null;
+        });
 
-        log.info("User deactivated successfully with ID: {}", userId);
+        log.debug("User deactivated successfully with ID: {}", userId);
     }
 
     @Override
     public void deleteUser(Long userId) {
-        log.info("Deleting user with ID: {}", userId);
-
-        if (!userRepository.existsById(userId)) {
-            throw new ResourceNotFoundException("User not found with ID: " + userId);
-        }
-
-        userRepository.deleteById(userId);
-        log.info("User deleted successfully with ID: {}", userId);
+        log.debug("Deleting user with ID: {}", userId);
+
+        User user = userShards.write(shardOfExisting(userId), () -> {
+            User deleted = userRepository.findById(userId)
+                    .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
+
+            userRepository.delete(deleted);
+            eventPublisher.publishEvent(UserChangedEvent.deleted(userId, deleted.getEmail(), deleted.getUsername()));
+            return deleted;
+        });
+        userKeys.release(user.getEmail(), user.getUsername());
+        log.debug("User deleted successfully with ID: {}", userId);
     }
 
+    /**
+     * Ranked by the in-memory search index and loaded in one query by ID per shard;
+     * falls back to a limited table scan of every shard while the index is loading
+     */
     @Override
-    @Transactional(readOnly = true)
-    public List<UserResponseDTO> searchUsers(String searchTerm) {
+    public List<UserResponseDTO> searchUsers(String searchTerm, int limit) {
         log.debug("Searching users with term: {}", searchTerm);
-        return userRepository.searchUsersByName(searchTerm).stream()
-                .map(user -> modelMapper.map(user, UserResponseDTO.class))
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            throw new InvalidRequestException("Limit must be between 1 and " + MAX_SEARCH_RESULTS);
+        }
+        Optional<List<Long>> ranked = userSearchIndex.search(searchTerm, limit);
+        if (ranked.isEmpty()) {
+            String term = searchTerm.trim();
+            List<UserResponseDTO> matches = gather(userShards.scatter(shard -> userShards.read(shard,
+                    () -> userRepository.searchUsersByTerm(term, Limit.of(limit)))), BY_ID);
+            return matches.size() > limit ? matches.subList(0, limit) : matches;
+        }
+        List<Long> ids = ranked.get();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, UserResponseDTO> usersById = findResponsesByIds(ids);
+        return ids.stream()
+                .map(usersById::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Not transactional: a "definitely absent" answer from the index needs no connection
+     */
     @Override
-    @Transactional(readOnly = true)
     public boolean isEmailExists(String email) {
-        return userRepository.existsByEmail(email);
+        if (!availabilityIndex.mightContainEmail(email)) {
+            return false;
+        }
+        boolean exists = userKeys.emailExists(email);
+        if (!exists) {
+            availabilityIndex.recordFalsePositive();
+        }
+        return exists;
     }
 
+    /**
+     * Not transactional: a "definitely absent" answer from the index needs no connection
+     */
     @Override
-    @Transactional(readOnly = true)
     public boolean isUsernameExists(String username) {
-        return userRepository.existsByUsername(username);
+        if (!availabilityIndex.mightContainUsername(username)) {
+            return false;
+        }
+        boolean exists = userKeys.usernameExists(username);
+        if (!exists) {
+            availabilityIndex.recordFalsePositive();
+        }
+        return exists;
+    }
+
+    /**
+     * Apply an update in a write transaction on the user's shard
+     * Uniqueness checks run inside the write so they see the row being updated
+     */
+    private UserResponseDTO updateOnShard(int shard, Long userId, UserRegistrationDTO registrationDTO,
+                                          String encodedPassword) {
+        return inWriteTransaction(shard, () -> {
+            User existingUser = userRepository.findById(userId)
+                    .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
+
+            // Check if email is being changed and if it's already taken
+            if (!existingUser.getEmail().equals(registrationDTO.getEmail()) &&
+                userRepository.existsByEmail(registrationDTO.getEmail())) {
+                throw new DuplicateResourceException("Email already in use: " + registrationDTO.getEmail());
+            }
+
+            // Check if username is being changed and if it's already taken
+            if (!existingUser.getUsername().equals(registrationDTO.getUsername()) &&
+                userRepository.existsByUsername(registrationDTO.getUsername())) {
+                throw new DuplicateResourceException("Username already in use: " + registrationDTO.getUsername());
+            }
+
+            // Update fields, keeping the stored hash unless a new password was given
+            String previousEmail = existingUser.getEmail();
+            String previousUsername = existingUser.getUsername();
+            String currentPassword = existingUser.getPassword();
+            if (encodedPassword != null && passwordHashingService.needsRehash(currentPassword)) {
+                log.debug("Upgrading password hash work factor for user ID: {}", userId);
+                passwordHashingService.recordUpgrade();
+            }
+            userMapper.updateEntity(registrationDTO, existingUser);
+            existingUser.setPassword(encodedPassword != null ? encodedPassword : currentPassword);
+
+            User updatedUser = userRepository.saveAndFlush(existingUser);
+            UserResponseDTO updated = userMapper.toResponse(updatedUser);
+            eventPublisher.publishEvent(UserChangedEvent.updated(previousEmail, previousUsername, updated));
+            return updated;
+        });
+    }
+
+    /**
+     * Insert new users with one transaction per home shard, shards in parallel, then bind
+     * the keys of the users written and release the rest
+     * A shard that fails does not undo the others, so the outcome is reported per user
+     * @return For each user in the given order, the created user or its shard's failure
+     */
+    private List<Inserted> insertAll(List<User> users, List<UserKeyRegistry.Claim> claims) {
+        List<List<Integer>> indexesByShard = new ArrayList<>(userShards.count());
+        for (int shard = 0; shard < userShards.count(); shard++) {
+            indexesByShard.add(new ArrayList<>());
+        }
+        for (int i = 0; i < users.size(); i++) {
+            indexesByShard.get(userShards.shardOfKey(users.get(i).getEmail())).add(i);
+        }
+
+        UserResponseDTO[] created = new UserResponseDTO[users.size()];
+        List<RuntimeException> failures = userShards.scatter(shard -> {
+            List<Integer> indexes = indexesByShard.get(shard);
+            if (indexes.isEmpty()) {
+                return null;
+            }
+            List<User> shardUsers = indexes.stream().map(users::get).toList();
+            try {
+                // Sequence-generated ids let Hibernate send these as JDBC batches on flush
+                List<UserResponseDTO> saved = inWriteTransaction(shard, () -> {
+                    userRepository.saveAll(shardUsers);
+                    userRepository.flush();
+                    List<UserResponseDTO> responses = shardUsers.stream()
+                            .map(userMapper::toResponse)
+                            .collect(Collectors.toList());
+                    responses.forEach(user -> eventPublisher.publishEvent(UserChangedEvent.registered(user)));
+                    return responses;
+                });
+                for (int j = 0; j < indexes.size(); j++) {
+                    created[indexes.get(j)] = saved.get(j);
+                }
+                return null;
+            } catch (RuntimeException e) {
+                return e;
+            }
+        });
+
+        List<UserKeyRegistry.Claim> written = new ArrayList<>(users.size());
+        List<Long> writtenIds = new ArrayList<>(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            if (created[i] != null) {
+                written.add(claims.get(i));
+                writtenIds.add(created[i].getUserId());
+            } else {
+                claims.get(i).release();
+            }
+        }
+        userKeys.bindAll(written, writtenIds);
+        List<Inserted> inserted = new ArrayList<>(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            int shard = userShards.shardOfKey(users.get(i).getEmail());
+            inserted.add(new Inserted(created[i], created[i] == null ? failures.get(shard) : null));
+        }
+        return inserted;
+    }
+
+    /**
+     * Outcome of inserting one user: the created user, or the failure of its shard's write
+     */
+    private record Inserted(UserResponseDTO user, RuntimeException failure) {
+    }
+
+    private Map<String, String> validate(UserRegistrationDTO dto) {
+        if (dto == null) {
+            Map<String, String> errors = new LinkedHashMap<>();
+            errors.put("user", "User data is required");
+            return errors;
+        }
+        return validator.validateFields(dto);
+    }
+
+    private BatchItemResultDTO failedItem(int index, BatchItemStatus status, String message,
+                                          Map<String, String> validationErrors) {
+        return BatchItemResultDTO.builder()
+                .index(index)
+                .status(status)
+                .message(message)
+                .validationErrors(validationErrors)
+                .build();
+    }
+
+    /**
+     * Cache loader: read a user's response columns fresh from its shard's primary, or null if
+     * not found; a lagging replica could leave a stale user cached until it expires
+     */
+    private UserResponseDTO loadUser(Long userId) {
+        int shard = userShards.shardOf(userId);
+        return shard < 0 ? null
+                : userShards.readPrimary(shard, () -> userRepository.findResponseById(userId).orElse(null));
+    }
+
+    /**
+     * Load users by ID with one query per shard holding any of them
+     */
+    private Map<Long, UserResponseDTO> findResponsesByIds(List<Long> ids) {
+        List<List<Long>> idsByShard = new ArrayList<>(userShards.count());
+        for (int shard = 0; shard < userShards.count(); shard++) {
+            idsByShard.add(new ArrayList<>());
+        }
+        for (Long id : ids) {
+            int shard = userShards.shardOf(id);
+            if (shard >= 0) {
+                idsByShard.get(shard).add(id);
+            }
+        }
+        return userShards.scatter(shard -> idsByShard.get(shard).isEmpty() ? List.<UserResponseDTO>of()
+                        : userShards.read(shard, () -> userRepository.findResponsesByIdIn(idsByShard.get(shard))))
+                .stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toMap(UserResponseDTO::getUserId, Function.identity()));
+    }
+
+    /**
+     * @throws ResourceNotFoundException if no shard could hold the user
+     */
+    private int shardOfExisting(Long userId) {
+        int shard = userShards.shardOf(userId);
+        if (shard < 0) {
+            throw new ResourceNotFoundException("User not found with ID: " + userId);
+        }
+        return shard;
+    }
+
+    /**
+     * Results of one query from every shard; with several shards they are merged into the
+     * order each shard returned them in (each run is sorted, so the sort only merges runs)
+     */
+    private static List<UserResponseDTO> gather(List<List<UserResponseDTO>> perShard,
+                                                Comparator<UserResponseDTO> order) {
+        if (perShard.size() == 1) {
+            return perShard.get(0);
+        }
+        List<UserResponseDTO> merged = new ArrayList<>();
+        perShard.forEach(merged::addAll);
+        merged.sort(order);
+        return merged;
+    }
+
+    /**
+     * In-memory equivalent of the listing's ORDER BY, ties broken by ID
+     */
+    private static Comparator<UserResponseDTO> listingOrder(Sort sort) {
+        Comparator<UserResponseDTO> order = (a, b) -> 0;
+        for (Sort.Order sortOrder : sort) {
+            Comparator<UserResponseDTO> property = switch (sortOrder.getProperty()) {
+                case "firstName" -> Comparator.comparing(UserResponseDTO::getFirstName, TEXT_ORDER);
+                case "lastName" -> Comparator.comparing(UserResponseDTO::getLastName, TEXT_ORDER);
+                case "username" -> Comparator.comparing(UserResponseDTO::getUsername, TEXT_ORDER);
+                case "email" -> Comparator.comparing(UserResponseDTO::getEmail, TEXT_ORDER);
+                case "city" -> Comparator.comparing(UserResponseDTO::getCity, TEXT_ORDER);
+                case "isActive" -> Comparator.comparing(UserResponseDTO::getIsActive,
+                        Comparator.nullsFirst(Comparator.<Boolean>naturalOrder()));
+                case "createdAt" -> Comparator.comparing(UserResponseDTO::getCreatedAt,
+                        Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()));
+                default -> BY_ID;
+            };
+            order = order.thenComparing(sortOrder.isAscending() ? property : property.reversed());
+        }
+        return order.thenComparing(BY_ID);
+    }
+
+    /**
+     * Reject a write whose claim found a key taken
+     */
+    private static void rejectConflict(UserKeyRegistry.Claim claim, UserRegistrationDTO dto,
+                                       String emailMessage, String usernameMessage) {
+        if (claim.getConflict() == UserKeyRegistry.Conflict.EMAIL) {
+            throw new DuplicateResourceException(emailMessage + dto.getEmail());
+        }
+        if (claim.getConflict() == UserKeyRegistry.Conflict.USERNAME) {
+            throw new DuplicateResourceException(usernameMessage + dto.getUsername());
+        }
+    }
+
+    private static boolean sameKey(String current, String requested) {
+        return requested == null || normalizeKey(current).equals(normalizeKey(requested));
+    }
+
+    /**
+     * Uniqueness keys are compared case-insensitively, matching MySQL's default collation
+     */
+    private static String normalizeKey(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Run a write in its own transaction on a shard, reporting unique-key races as duplicates
+     */
+    private <T> T inWriteTransaction(int shard, Supplier<T> work) {
+        try {
+            return userShards.write(shard, work);
+        } catch (DataIntegrityViolationException e) {
+            log.error("Write conflicted with a concurrent registration: {}", e.getMostSpecificCause().getMessage());
+            throw new DuplicateResourceException("Email or username was registered concurrently", e);
+        }
+    }
+
+    private static ResourceVersionDTO userVersion(Long userId, LocalDateTime updatedAt) {
+        return ResourceVersionDTO.builder()
+                .tag(userId + "-" + Long.toHexString(toEpochMicros(updatedAt)))
+                .lastModified(toInstant(updatedAt))
+                .build();
+    }
+
+    /** Timestamps are stored in the JVM zone; microseconds are the finest precision MySQL keeps */
+    private static long toEpochMicros(LocalDateTime time) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, toInstant(time));
+    }
+
+    private static Instant toInstant(LocalDateTime time) {
+        return time == null ? Instant.EPOCH : time.atZone(ZoneId.systemDefault()).toInstant();
     }
 }
@@ -0,0 +1,156 @@
+package com.registration.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming reader of comma-separated values (RFC 4180)
+ * Fields may be quoted, with "" for a quote inside a quoted field, and quoted fields may
+ * span lines. Records end with LF, CRLF or CR; blank lines and a leading byte order mark
+ * are skipped. One record is held in memory at a time, and records longer than the limit
+ * are rejected so a missing closing quote cannot swallow the whole file.
+ * Not thread-safe.
+ */
+public class CsvReader implements Closeable {
+
+    private static final int DEFAULT_MAX_RECORD_LENGTH = 64 * 1024;
+
+    private final Reader reader;
+    private final int maxRecordLength;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private boolean started;
+    private long recordNumber;
+    private long lineNumber = 1;
+
+    public CsvReader(Reader reader) {
+        this(reader, DEFAULT_MAX_RECORD_LENGTH);
+    }
+
+    public CsvReader(Reader reader, int maxRecordLength) {
+        this.reader = reader;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    /**
+     * Read the next record
+     * @return Fields of the record, or null at the end of the input
+     * @throws IOException if reading fails or the record is malformed
+     */
+    public List<String> readRecord() throws IOException {
+        if (!started) {
+            started = true;
+            if (peek() == '\uFEFF') {
+                position++;
+            }
+        }
+        int c;
+        // Skip blank lines between records
+        while ((c = peek()) == '\n' || c == '\r') {
+            readLineEnd();
+        }
+        if (c < 0) {
+            return null;
+        }
+
+        long firstLine = lineNumber;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        int length = 0;
+        boolean quoted = false;
+        boolean inQuotes = false;
+        while (true) {
+            c = read();
+            if (c < 0) {
+                if (inQuotes) {
+                    throw new IOException("Unterminated quoted field in record starting at line " + firstLine);
+                }
+                fields.add(field.toString());
+                break;
+            }
+            if (++length > maxRecordLength) {
+                throw new IOException("Record starting at line " + firstLine + " exceeds "
+                        + maxRecordLength + " characters");
+            }
+            if (inQuotes) {
+                if (c == '"') {
+                    if (peek() == '"') {
+                        position++;
+                        field.append('"');
+                    } else {
+                        inQuotes = false;
+                    }
+                } else {
+                    if (c == '\n' || (c == '\r' && peek() != '\n')) {
+                        lineNumber++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                quoted = false;
+            } else if (c == '\n' || c == '\r') {
+                position--;
+                readLineEnd();
+                fields.add(field.toString());
+                break;
+            } else if (c == '"' && field.length() == 0 && !quoted) {
+                inQuotes = true;
+                quoted = true;
+            } else {
+                // A stray quote inside an unquoted field is kept as text
+                field.append((char) c);
+            }
+        }
+        recordNumber++;
+        return fields;
+    }
+
+    /**
+     * @return 1-based number of the last record read, counting the header
+     */
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void readLineEnd() throws IOException {
+        if (read() == '\r' && peek() == '\n') {
+            position++;
+        }
+        lineNumber++;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private boolean fill() throws IOException {
+        int count = reader.read(buffer, 0, buffer.length);
+        if (count <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = count;
+        return true;
+    }
+}
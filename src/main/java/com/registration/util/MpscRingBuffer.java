@@ -0,0 +1,96 @@
+package com.registration.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free ring buffer for many producers and a single consumer
+ * Producers claim a slot by advancing the tail with CAS and then publish the element
+ * into it; the consumer takes elements in claim order and frees each slot by clearing
+ * it. A claimed slot that is not yet published stops the consumer until it is, so
+ * elements are never reordered or skipped.
+ */
+public class MpscRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+
+    /** Next sequence to consume; only written by the consumer */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity Number of slots, rounded up to a power of two
+     */
+    public MpscRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Add an element without blocking
+     * @param element Element to add
+     * @return false if the buffer is full
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException("element");
+        }
+        while (true) {
+            long sequence = tail.get();
+            if (sequence - head.get() >= slots.length()) {
+                return false;
+            }
+            if (tail.compareAndSet(sequence, sequence + 1)) {
+                slots.lazySet((int) sequence & mask, element);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Hand published elements to the consumer, oldest first; must only be called from one thread
+     * @param consumer Receives each element
+     * @param limit Maximum number of elements to take
+     * @return Number of elements taken
+     */
+    public int drain(Consumer<? super E> consumer, int limit) {
+        long sequence = head.get();
+        int taken = 0;
+        while (taken < limit) {
+            int index = (int) sequence & mask;
+            E element = slots.get(index);
+            if (element == null) {
+                break;
+            }
+            slots.lazySet(index, null);
+            sequence++;
+            head.lazySet(sequence);
+            taken++;
+            consumer.accept(element);
+        }
+        return taken;
+    }
+
+    /**
+     * @return Approximate number of claimed slots not yet consumed
+     */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    /**
+     * @return Number of slots
+     */
+    public int capacity() {
+        return slots.length();
+    }
+}
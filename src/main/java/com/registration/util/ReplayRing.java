@@ -0,0 +1,97 @@
+package com.registration.util;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongFunction;
+
+/**
+ * Bounded history of the most recent elements, each numbered by a sequence
+ * Once full, every append overwrites the oldest element. Readers fetch everything after a
+ * sequence they have seen, as long as it has not been overwritten yet. Appends are
+ * serialized so sequences follow append order; reads take no lock and detect an overwrite
+ * by checking the sequence stored with each slot.
+ */
+public class ReplayRing<E> {
+
+    private final AtomicReferenceArray<Entry<E>> slots;
+    private final int mask;
+    private final long firstSequence;
+
+    /** Sequence of the newest element; firstSequence - 1 while empty */
+    private volatile long lastSequence;
+
+    /**
+     * @param capacity Number of elements kept, rounded up to a power of two
+     * @param firstSequence Sequence of the first element appended
+     */
+    public ReplayRing(int capacity, long firstSequence) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.firstSequence = firstSequence;
+        this.lastSequence = firstSequence - 1;
+    }
+
+    /**
+     * Append an element, overwriting the oldest one if the ring is full
+     * @param factory Creates the element from the sequence it is given
+     * @return The element appended
+     */
+    public synchronized E append(LongFunction<E> factory) {
+        long sequence = lastSequence + 1;
+        E element = factory.apply(sequence);
+        slots.set((int) sequence & mask, new Entry<>(sequence, element));
+        lastSequence = sequence;
+        return element;
+    }
+
+    /**
+     * @return Sequence of the newest element; one less than the first sequence while empty
+     */
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * @return Sequence of the oldest element still held
+     */
+    public long oldestSequence() {
+        return Math.max(firstSequence, lastSequence - slots.length() + 1);
+    }
+
+    /**
+     * Read the elements after a sequence, oldest first
+     * @param afterSequence Last sequence the reader has seen
+     * @param limit Maximum number of elements to read
+     * @param into Receives the elements
+     * @return false if an element after afterSequence was already overwritten; into then
+     *         holds only part of them and should be discarded
+     */
+    public boolean readAfter(long afterSequence, int limit, List<? super E> into) {
+        long last = Math.min(lastSequence, afterSequence + limit);
+        for (long sequence = afterSequence + 1; sequence <= last; sequence++) {
+            Entry<E> entry = slots.get((int) sequence & mask);
+            if (entry == null || entry.sequence() != sequence) {
+                return false;
+            }
+            into.add(entry.element());
+        }
+        return true;
+    }
+
+    /**
+     * @return Number of slots
+     */
+    public int capacity() {
+        return slots.length();
+    }
+
+    private record Entry<E>(long sequence, E element) {
+    }
+}
@@ -0,0 +1,166 @@
+package com.registration.util;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Per-request phase durations, rendered as a Server-Timing header value
+ * A timing is bound to the request's thread only while the request is being timed;
+ * everywhere else {@link #record} is a single ThreadLocal read. Repeated phases (for
+ * example several SQL statements) are summed and counted. A phase opened with {@link #start}
+ * and not yet stopped is rendered with its duration so far.
+ */
+public final class ServerTiming {
+
+    private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final long startNanos = System.nanoTime();
+    private String[] names = new String[INITIAL_CAPACITY];
+    private long[] durations = new long[INITIAL_CAPACITY];
+    private int[] counts = new int[INITIAL_CAPACITY];
+    private long[] startedAt = new long[INITIAL_CAPACITY];
+    private boolean[] running = new boolean[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Bind a timing to the current thread
+     */
+    public static void bind(ServerTiming timing) {
+        CURRENT.set(timing);
+    }
+
+    /**
+     * Unbind the current thread's timing
+     */
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return true if the current thread's request is being timed
+     */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Add a duration to the current request's timing, if it is being timed
+     * @param name Metric name, a header token such as "sql" or "hashing"
+     * @param nanos Duration in nanoseconds
+     */
+    public static void record(String name, long nanos) {
+        ServerTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.add(name, nanos);
+        }
+    }
+
+    /**
+     * Open a phase of the current request's timing, if it is being timed
+     * @param name Metric name, a header token such as "render"
+     */
+    public static void start(String name) {
+        ServerTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.open(name);
+        }
+    }
+
+    /**
+     * Close a phase opened with {@link #start} and add its duration; does nothing if it is not open
+     * @param name Metric name passed to {@link #start}
+     */
+    public static void stop(String name) {
+        ServerTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.close(name);
+        }
+    }
+
+    /**
+     * @return Nanoseconds since this timing was created
+     */
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Add a duration under a metric name
+     */
+    public synchronized void add(String name, long nanos) {
+        int i = indexOf(name);
+        durations[i] += nanos;
+        counts[i]++;
+    }
+
+    /**
+     * Start timing a phase until {@link #close}
+     */
+    public synchronized void open(String name) {
+        int i = indexOf(name);
+        startedAt[i] = System.nanoTime();
+        running[i] = true;
+    }
+
+    /**
+     * Stop timing a phase opened with {@link #open} and add its duration
+     */
+    public synchronized void close(String name) {
+        for (int i = 0; i < size; i++) {
+            if (running[i] && names[i].equals(name)) {
+                durations[i] += System.nanoTime() - startedAt[i];
+                counts[i]++;
+                running[i] = false;
+                return;
+            }
+        }
+    }
+
+    private int indexOf(String name) {
+        for (int i = 0; i < size; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            durations = Arrays.copyOf(durations, size * 2);
+            counts = Arrays.copyOf(counts, size * 2);
+            startedAt = Arrays.copyOf(startedAt, size * 2);
+            running = Arrays.copyOf(running, size * 2);
+        }
+        names[size] = name;
+        return size++;
+    }
+
+    /**
+     * Render as a Server-Timing header value, e.g. {@code hashing;dur=84.20, sql;dur=1.73;desc="3x", total;dur=90.01}
+     * Open phases are rendered with their duration so far
+     * @param totalNanos Duration of the request so far, rendered last as "total"
+     */
+    public synchronized String toHeaderValue(long totalNanos) {
+        StringBuilder header = new StringBuilder((size + 1) * 24);
+        long now = System.nanoTime();
+        for (int i = 0; i < size; i++) {
+            if (running[i]) {
+                appendEntry(header, names[i], durations[i] + now - startedAt[i], counts[i] + 1);
+            } else {
+                appendEntry(header, names[i], durations[i], counts[i]);
+            }
+        }
+        appendEntry(header, "total", totalNanos, 1);
+        return header.toString();
+    }
+
+    private static void appendEntry(StringBuilder header, String name, long nanos, int count) {
+        if (!header.isEmpty()) {
+            header.append(", ");
+        }
+        header.append(name).append(";dur=")
+                .append(String.format(Locale.ROOT, "%.2f", nanos / 1_000_000.0));
+        if (count > 1) {
+            header.append(";desc=\"").append(count).append("x\"");
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.registration.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-key token buckets, each a single lock-free counter
+ * A bucket is kept as the time at which it will be full again (the generic cell rate
+ * algorithm): taking a token moves that time forward by one refill interval with a CAS,
+ * and a request is refused while it lies more than a full bucket ahead of now. A bucket
+ * left alone until it refills carries no state, so idle keys simply expire; when more
+ * than maxKeys are active the least recently used are forgotten, which only ever lets
+ * their clients in sooner. Thread-safe.
+ *
+ * @param <K> Client key type
+ */
+public class TokenBucketRateLimiter<K> {
+
+    private final long refillIntervalNanos;
+    private final long capacityNanos;
+    private final Cache<K, AtomicLong> buckets;
+
+    /**
+     * @param ratePerSecond Tokens added per second
+     * @param burst Bucket capacity, the most requests admitted at once
+     * @param maxKeys Maximum number of buckets kept
+     */
+    public TokenBucketRateLimiter(double ratePerSecond, int burst, long maxKeys) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.refillIntervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond));
+        this.capacityNanos = refillIntervalNanos * burst;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(capacityNanos))
+                .build();
+    }
+
+    /**
+     * Take a token from the key's bucket
+     * @return 0 if a token was taken, otherwise the nanoseconds until one is available
+     */
+    public long tryAcquire(K key) {
+        AtomicLong fullAt = buckets.get(key, k -> new AtomicLong(System.nanoTime()));
+        long now = System.nanoTime();
+        while (true) {
+            long current = fullAt.get();
+            long next = (current - now > 0 ? current : now) + refillIntervalNanos;
+            long wait = next - now - capacityNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * @return Approximate number of buckets held
+     */
+    public long size() {
+        return buckets.estimatedSize();
+    }
+}
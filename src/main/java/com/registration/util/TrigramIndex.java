@@ -0,0 +1,353 @@
+package com.registration.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over a fixed number of text fields per document
+ * Every field is indexed by its trigrams for substring queries, plus the padded
+ * leading trigrams of each word ("\0\0j", "\0jo") so that one- and two-character
+ * terms can match word prefixes. Candidates from the posting lists are verified
+ * against the stored fields, so results never contain false matches.
+ *
+ * Queries are split on whitespace and every token must match some field. Matches
+ * rank exact field matches first, then field prefixes, word prefixes and plain
+ * substrings; ties are broken by ascending ID. Reads share a read lock and writes
+ * take the write lock.
+ */
+public class TrigramIndex {
+
+    private static final int EXACT = 8;
+    private static final int FIELD_PREFIX = 4;
+    private static final int WORD_PREFIX = 2;
+    private static final int SUBSTRING = 1;
+
+    private final int fieldCount;
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    private final Map<Long, String[]> documents = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * @param fieldCount Number of text fields in every document
+     */
+    public TrigramIndex(int fieldCount) {
+        this.fieldCount = fieldCount;
+    }
+
+    /**
+     * Add a document, replacing any previous version with the same ID
+     * @param id Document ID
+     * @param fields Field values, null for empty fields
+     */
+    public void put(long id, String... fields) {
+        if (fields.length != fieldCount) {
+            throw new IllegalArgumentException("Expected " + fieldCount + " fields but got " + fields.length);
+        }
+        String[] normalized = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            normalized[i] = fields[i] == null ? "" : normalize(fields[i]);
+        }
+        lock.writeLock().lock();
+        try {
+            String[] previous = documents.put(id, normalized);
+            if (previous != null) {
+                for (long key : keysOf(previous)) {
+                    removePosting(key, id);
+                }
+            }
+            for (long key : keysOf(normalized)) {
+                postings.computeIfAbsent(key, k -> new PostingList()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a document
+     * @param id Document ID
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            String[] previous = documents.remove(id);
+            if (previous != null) {
+                for (long key : keysOf(previous)) {
+                    removePosting(key, id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the best matching documents
+     * @param query Search text; whitespace separates tokens that must all match
+     * @param limit Maximum number of IDs to return
+     * @return Matching IDs, best match first
+     */
+    public List<Long> search(String query, int limit) {
+        String[] tokens = normalize(query).trim().split("\\s+");
+        if (tokens[0].isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            long[] candidates = null;
+            for (String token : tokens) {
+                long[] matches = candidatesFor(token);
+                candidates = candidates == null ? matches : intersect(candidates, candidates.length, matches, matches.length);
+                if (candidates.length == 0) {
+                    return List.of();
+                }
+            }
+
+            // Keep the best "limit" scored matches; the heap root is the worst of them
+            Comparator<long[]> ranking = Comparator.<long[]>comparingLong(m -> m[1]).reversed()
+                    .thenComparingLong(m -> m[0]);
+            PriorityQueue<long[]> best = new PriorityQueue<>(ranking.reversed());
+            for (long id : candidates) {
+                int score = score(documents.get(id), tokens);
+                if (score == 0) {
+                    continue;
+                }
+                if (best.size() < limit) {
+                    best.add(new long[]{id, score});
+                } else if (score > best.peek()[1]) {
+                    // Candidates arrive in ascending ID order, so an equal score never displaces the root
+                    best.poll();
+                    best.add(new long[]{id, score});
+                }
+            }
+            List<long[]> ranked = new ArrayList<>(best);
+            ranked.sort(ranking);
+            List<Long> ids = new ArrayList<>(ranked.size());
+            ranked.forEach(match -> ids.add(match[0]));
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Number of indexed documents
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Number of distinct trigrams
+     */
+    public int trigramCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long[] candidatesFor(String token) {
+        if (token.length() < 3) {
+            PostingList list = postings.get(token.length() == 1
+                    ? pack('\0', '\0', token.charAt(0))
+                    : pack('\0', token.charAt(0), token.charAt(1)));
+            return list == null ? new long[0] : list.toArray();
+        }
+        // Intersect starting from the rarest trigram
+        List<PostingList> lists = new ArrayList<>();
+        for (int i = 0; i + 3 <= token.length(); i++) {
+            PostingList list = postings.get(pack(token.charAt(i), token.charAt(i + 1), token.charAt(i + 2)));
+            if (list == null) {
+                return new long[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(PostingList::size));
+        long[] result = lists.get(0).toArray();
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            PostingList list = lists.get(i);
+            result = intersect(result, result.length, list.ids, list.size);
+        }
+        return result;
+    }
+
+    private static int score(String[] fields, String[] tokens) {
+        int total = 0;
+        for (String token : tokens) {
+            int best = 0;
+            for (String field : fields) {
+                best = Math.max(best, scoreField(field, token));
+            }
+            if (best == 0) {
+                return 0;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private static int scoreField(String field, String token) {
+        if (field.equals(token)) {
+            return EXACT;
+        }
+        if (field.startsWith(token)) {
+            return FIELD_PREFIX;
+        }
+        int from = field.indexOf(token);
+        int substring = 0;
+        while (from >= 0) {
+            if (!Character.isLetterOrDigit(field.charAt(from - 1))) {
+                return WORD_PREFIX;
+            }
+            if (token.length() >= 3) {
+                substring = SUBSTRING;
+            }
+            from = field.indexOf(token, from + 1);
+        }
+        return substring;
+    }
+
+    private Set<Long> keysOf(String[] fields) {
+        Set<Long> keys = new HashSet<>();
+        for (String field : fields) {
+            for (int i = 0; i + 3 <= field.length(); i++) {
+                keys.add(pack(field.charAt(i), field.charAt(i + 1), field.charAt(i + 2)));
+            }
+            for (int i = 0; i < field.length(); i++) {
+                boolean wordStart = Character.isLetterOrDigit(field.charAt(i))
+                        && (i == 0 || !Character.isLetterOrDigit(field.charAt(i - 1)));
+                if (wordStart) {
+                    keys.add(pack('\0', '\0', field.charAt(i)));
+                    if (i + 1 < field.length()) {
+                        keys.add(pack('\0', field.charAt(i), field.charAt(i + 1)));
+                    }
+                }
+            }
+        }
+        return keys;
+    }
+
+    private void removePosting(long key, long id) {
+        PostingList list = postings.get(key);
+        if (list != null && list.remove(id) && list.size() == 0) {
+            postings.remove(key);
+        }
+    }
+
+    private static long[] intersect(long[] a, int aLength, long[] b, int bLength) {
+        if (aLength * 16L < bLength) {
+            return gallop(a, aLength, b, bLength);
+        }
+        long[] result = new long[Math.min(aLength, bLength)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < aLength && j < bLength) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+
+    /**
+     * Intersect a short list with a much longer one by binary searching the long one
+     */
+    private static long[] gallop(long[] small, int smallLength, long[] large, int largeLength) {
+        long[] result = new long[smallLength];
+        int n = 0;
+        int from = 0;
+        for (int i = 0; i < smallLength && from < largeLength; i++) {
+            int position = Arrays.binarySearch(large, from, largeLength, small[i]);
+            if (position >= 0) {
+                result[n++] = small[i];
+                from = position + 1;
+            } else {
+                from = -position - 1;
+            }
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+
+    private static long pack(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Sorted, growable array of document IDs
+     * IDs come from a sequence, so inserts are almost always appends
+     */
+    private static final class PostingList {
+
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            if (size == 0 || ids[size - 1] < id) {
+                ensureCapacity();
+                ids[size++] = id;
+                return;
+            }
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            int insertAt = -position - 1;
+            ensureCapacity();
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.registration.validation;
+
+import com.registration.dto.UserRegistrationDTO;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.constraints.Email;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.SmartValidator;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hand-written validator for UserRegistrationDTO
+ * Checks the same constraints as the DTO's annotations, with the same messages and error
+ * codes, but without Hibernate Validator's metadata traversal: the patterns are plain
+ * character scans and nothing is looked up reflectively unless a field is rejected.
+ * Other types, and validation with groups, go to bean validation. The DTO annotations stay
+ * the source of truth; a constraint added there must be added here too.
+ */
+@Component
+public class UserRegistrationValidator implements SmartValidator {
+
+    /** Characters besides letters and digits allowed in an unquoted local part */
+    private static final String ATOM_SYMBOLS = "!#$%&'*+/=?^_`{|}~-";
+
+    private final jakarta.validation.Validator beanValidator;
+    private final SmartValidator beanValidatorAdapter;
+    private final boolean enabled;
+
+    public UserRegistrationValidator(jakarta.validation.Validator beanValidator,
+                                     @Value("${registration.validation.fast-path:true}") boolean enabled) {
+        this.beanValidator = beanValidator;
+        this.beanValidatorAdapter = new SpringValidatorAdapter(beanValidator);
+        this.enabled = enabled;
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return UserRegistrationDTO.class.isAssignableFrom(clazz) || beanValidatorAdapter.supports(clazz);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        if (enabled && target instanceof UserRegistrationDTO dto) {
+            check(dto, (field, code, message) -> reject(errors, field, code, message));
+        } else {
+            beanValidatorAdapter.validate(target, errors);
+        }
+    }
+
+    @Override
+    public void validate(Object target, Errors errors, Object... validationHints) {
+        if (validationHints.length == 0) {
+            validate(target, errors);
+        } else {
+            beanValidatorAdapter.validate(target, errors, validationHints);
+        }
+    }
+
+    @Override
+    public void validateValue(Class<?> targetType, String fieldName, Object value, Errors errors,
+                              Object... validationHints) {
+        beanValidatorAdapter.validateValue(targetType, fieldName, value, errors, validationHints);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> type) {
+        return beanValidatorAdapter.unwrap(type);
+    }
+
+    /**
+     * Validate a registration outside MVC binding
+     * @return First message per invalid field, in declaration order; empty when valid
+     */
+    public Map<String, String> validateFields(UserRegistrationDTO dto) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        if (enabled) {
+            check(dto, (field, code, message) -> errors.putIfAbsent(field, message));
+        } else {
+            for (ConstraintViolation<UserRegistrationDTO> violation : beanValidator.validate(dto)) {
+                errors.putIfAbsent(violation.getPropertyPath().toString(), violation.getMessage());
+            }
+        }
+        return errors;
+    }
+
+    private void check(UserRegistrationDTO dto, Violations violations) {
+        String firstName = dto.getFirstName();
+        if (isBlank(firstName)) {
+            violations.add("firstName", "NotBlank", "First name is required");
+        }
+        if (outOfSize(firstName, 2, 50)) {
+            violations.add("firstName", "Size", "First name must be between 2 and 50 characters");
+        }
+
+        String lastName = dto.getLastName();
+        if (isBlank(lastName)) {
+            violations.add("lastName", "NotBlank", "Last name is required");
+        }
+        if (outOfSize(lastName, 2, 50)) {
+            violations.add("lastName", "Size", "Last name must be between 2 and 50 characters");
+        }
+
+        String username = dto.getUsername();
+        if (isBlank(username)) {
+            violations.add("username", "NotBlank", "Username is required");
+        }
+        if (outOfSize(username, 3, 30)) {
+            violations.add("username", "Size", "Username must be between 3 and 30 characters");
+        }
+        if (username != null && !isWordCharacters(username)) {
+            violations.add("username", "Pattern", "Username can only contain letters, numbers, and underscores");
+        }
+
+        String email = dto.getEmail();
+        if (isBlank(email)) {
+            violations.add("email", "NotBlank", "Email is required");
+        }
+        if (email != null && !isPlainAddress(email) && !isEmail(email)) {
+            violations.add("email", "Email", "Please provide a valid email address");
+        }
+
+        String password = dto.getPassword();
+        if (isBlank(password)) {
+            violations.add("password", "NotBlank", "Password is required");
+        }
+        if (outOfSize(password, 8, 100)) {
+            violations.add("password", "Size", "Password must be at least 8 characters");
+        }
+
+        if (isBlank(dto.getConfirmPassword())) {
+            violations.add("confirmPassword", "NotBlank", "Confirm password is required");
+        }
+
+        String phoneNumber = dto.getPhoneNumber();
+        if (isBlank(phoneNumber)) {
+            violations.add("phoneNumber", "NotBlank", "Phone number is required");
+        }
+        if (phoneNumber != null && !isDigits(phoneNumber, 10)) {
+            violations.add("phoneNumber", "Pattern", "Phone number must be exactly 10 digits");
+        }
+
+        LocalDate dateOfBirth = dto.getDateOfBirth();
+        if (dateOfBirth == null) {
+            violations.add("dateOfBirth", "NotNull", "Date of birth is required");
+        } else if (!dateOfBirth.isBefore(LocalDate.now())) {
+            violations.add("dateOfBirth", "Past", "Date of birth must be in the past");
+        }
+
+        String gender = dto.getGender();
+        if (isBlank(gender)) {
+            violations.add("gender", "NotBlank", "Gender is required");
+        }
+        if (gender != null && !gender.equals("Male") && !gender.equals("Female") && !gender.equals("Other")) {
+            violations.add("gender", "Pattern", "Gender must be Male, Female, or Other");
+        }
+
+        if (outOfSize(dto.getAddress(), 0, 200)) {
+            violations.add("address", "Size", "Address cannot exceed 200 characters");
+        }
+        if (outOfSize(dto.getCity(), 0, 50)) {
+            violations.add("city", "Size", "City cannot exceed 50 characters");
+        }
+        if (outOfSize(dto.getState(), 0, 50)) {
+            violations.add("state", "Size", "State cannot exceed 50 characters");
+        }
+
+        String postalCode = dto.getPostalCode();
+        if (postalCode != null && !isDigits(postalCode, 6)) {
+            violations.add("postalCode", "Pattern", "Postal code must be exactly 6 digits");
+        }
+
+        if (outOfSize(dto.getCountry(), 0, 50)) {
+            violations.add("country", "Size", "Country cannot exceed 50 characters");
+        }
+
+        if (!dto.isPasswordConfirmed()) {
+            violations.add("passwordConfirmed", "AssertTrue", "Passwords do not match");
+        }
+    }
+
+    /**
+     * Record a violation the way SpringValidatorAdapter does: codes are resolved from the
+     * constraint name, and a field that already failed to bind keeps only its binding error
+     */
+    private static void reject(Errors errors, String field, String code, String message) {
+        FieldError existing = errors.getFieldError(field);
+        if (existing == null || !existing.isBindingFailure()) {
+            errors.rejectValue(field, code, message);
+        }
+    }
+
+    /**
+     * @NotBlank: null, or nothing left after String.trim()
+     */
+    private static boolean isBlank(String value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @Size: null is valid
+     */
+    private static boolean outOfSize(String value, int min, int max) {
+        return value != null && (value.length() < min || value.length() > max);
+    }
+
+    /**
+     * ^[a-zA-Z0-9_]+$
+     */
+    private static boolean isWordCharacters(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!isAlphanumeric(c) && c != '_') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Common addresses that @Email is known to accept, checked without its regexes and IDN
+     * conversion: dot-separated ASCII atoms, at most 64 of them before the last '@', then a
+     * host name of 1-63 character letter/digit/hyphen labels. Anything else goes to @Email.
+     */
+    private static boolean isPlainAddress(String value) {
+        int at = value.lastIndexOf('@');
+        if (at < 1 || at > 64 || value.length() - at - 1 > 253) {
+            return false;
+        }
+        boolean afterDot = true;
+        for (int i = 0; i < at; i++) {
+            char c = value.charAt(i);
+            if (c == '.') {
+                if (afterDot) {
+                    return false;
+                }
+                afterDot = true;
+            } else if (isAlphanumeric(c) || ATOM_SYMBOLS.indexOf(c) >= 0) {
+                afterDot = false;
+            } else {
+                return false;
+            }
+        }
+        if (afterDot) {
+            return false;
+        }
+        int labelStart = at + 1;
+        for (int i = labelStart; i <= value.length(); i++) {
+            char c = i < value.length() ? value.charAt(i) : '.';
+            if (c == '.') {
+                int labelLength = i - labelStart;
+                if (labelLength < 1 || labelLength > 63
+                        || value.charAt(labelStart) == '-' || value.charAt(i - 1) == '-') {
+                    return false;
+                }
+                labelStart = i + 1;
+            } else if (!isAlphanumeric(c) && c != '-') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The DTO's own @Email constraint, through bean validation, so uncommon addresses are
+     * judged exactly as before
+     */
+    private boolean isEmail(String value) {
+        for (ConstraintViolation<UserRegistrationDTO> violation
+                : beanValidator.validateValue(UserRegistrationDTO.class, "email", value)) {
+            if (violation.getConstraintDescriptor().getAnnotation() instanceof Email) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAlphanumeric(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    /**
+     * ^[0-9]{length}$
+     */
+    private static boolean isDigits(String value, int length) {
+        if (value.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @FunctionalInterface
+    private interface Violations {
+        void add(String field, String code, String message);
+    }
+}
@@ -0,0 +1,189 @@
+package com.registration.web;
+
+import com.registration.config.AdmissionControlProperties;
+import com.registration.datasource.ConcurrencyLimitedDataSource;
+import com.registration.exception.RateLimitExceededException;
+import com.registration.exception.ServiceOverloadedException;
+import com.registration.service.PasswordHashingService;
+import com.registration.util.TokenBucketRateLimiter;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.util.ServletRequestPathUtils;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Admission control for expensive endpoints, applied before the request body is read
+ * A request to a guarded endpoint is shed with 503 while the password hashing backlog or
+ * the number of callers waiting for a database connection is above the endpoint's
+ * threshold, so lookups keep the CPU and the pool; otherwise it takes a token from its
+ * client's bucket and gets 429 when the bucket is empty. Both carry Retry-After.
+ */
+@Component
+@ConditionalOnProperty(name = "registration.admission.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(AdmissionControlProperties.class)
+@Slf4j
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+
+    private static final String RATE_LIMITED = "rate_limited";
+    private static final String HASHING_BACKLOG = "hashing_backlog";
+    private static final String POOL_WAIT = "pool_wait";
+
+    private final List<EndpointGuard> guards = new ArrayList<>();
+    private final ClientKeyResolver clientKeys;
+    private final PasswordHashingService passwordHashingService;
+    private final IntSupplier poolWaiting;
+
+    public AdmissionControlInterceptor(AdmissionControlProperties properties,
+                                       ClientKeyResolver clientKeys,
+                                       PasswordHashingService passwordHashingService,
+                                       DataSource dataSource,
+                                       MeterRegistry meterRegistry) {
+        this.clientKeys = clientKeys;
+        this.passwordHashingService = passwordHashingService;
+        this.poolWaiting = poolWaiting(dataSource);
+        properties.getEndpoints().forEach((name, endpoint) -> {
+            guards.add(new EndpointGuard(name, endpoint, properties.getMaxClients(), meterRegistry));
+            log.info("Admission control on {} {} {}: {} per second per client (burst {}), "
+                            + "max hashing queue {}, max pool waiting {}", name, endpoint.getMethods(),
+                    endpoint.getPaths(), endpoint.getRate(), endpoint.getBurst(),
+                    endpoint.getMaxHashingQueue(), endpoint.getMaxPoolWaiting());
+        });
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        EndpointGuard guard = match(request);
+        if (guard != null) {
+            admit(guard, request);
+        }
+        return true;
+    }
+
+    private void admit(EndpointGuard guard, HttpServletRequest request) {
+        AdmissionControlProperties.Endpoint endpoint = guard.endpoint;
+        if (endpoint.getMaxHashingQueue() >= 0
+                && passwordHashingService.getQueueDepth() > endpoint.getMaxHashingQueue()) {
+            guard.hashingBacklog.increment();
+            throw new ServiceOverloadedException("Server is busy, please retry shortly",
+                    passwordHashingService.estimateQueueDelay());
+        }
+        if (endpoint.getMaxPoolWaiting() >= 0 && poolWaiting.getAsInt() > endpoint.getMaxPoolWaiting()) {
+            guard.poolWait.increment();
+            throw new ServiceOverloadedException("Server is busy, please retry shortly", endpoint.getRetryAfter());
+        }
+        if (guard.limiter != null) {
+            long waitNanos = guard.limiter.tryAcquire(clientKeys.resolve(request));
+            if (waitNanos > 0) {
+                guard.rateLimited.increment();
+                throw new RateLimitExceededException("Too many requests, please slow down",
+                        Duration.ofNanos(waitNanos));
+            }
+        }
+    }
+
+    private EndpointGuard match(HttpServletRequest request) {
+        PathContainer path = null;
+        for (EndpointGuard guard : guards) {
+            if (!guard.methods.contains(request.getMethod())) {
+                continue;
+            }
+            if (path == null) {
+                path = (ServletRequestPathUtils.hasParsedRequestPath(request)
+                        ? ServletRequestPathUtils.getParsedRequestPath(request)
+                        : ServletRequestPathUtils.parseAndCache(request)).pathWithinApplication();
+            }
+            for (PathPattern pattern : guard.patterns) {
+                if (pattern.matches(path)) {
+                    return guard;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Callers waiting for a connection: from the concurrency limiter when the pool is
+     * wrapped in one, otherwise from Hikari
+     */
+    private static IntSupplier poolWaiting(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(ConcurrencyLimitedDataSource.class)) {
+                ConcurrencyLimitedDataSource limiter = dataSource.unwrap(ConcurrencyLimitedDataSource.class);
+                return limiter::getWaitingCount;
+            }
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+                return () -> {
+                    HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+                    return pool == null ? 0 : pool.getThreadsAwaitingConnection();
+                };
+            }
+        } catch (SQLException e) {
+            log.warn("Cannot inspect the connection pool; pool wait shedding is disabled", e);
+        }
+        return () -> 0;
+    }
+
+    private static final class EndpointGuard {
+
+        private final AdmissionControlProperties.Endpoint endpoint;
+        private final Set<String> methods;
+        private final List<PathPattern> patterns;
+        private final TokenBucketRateLimiter<String> limiter;
+        private final Counter rateLimited;
+        private final Counter hashingBacklog;
+        private final Counter poolWait;
+
+        private EndpointGuard(String name, AdmissionControlProperties.Endpoint endpoint, long maxClients,
+                              MeterRegistry meterRegistry) {
+            this.endpoint = endpoint;
+            this.methods = endpoint.getMethods().stream()
+                    .map(method -> method.toUpperCase(Locale.ROOT))
+                    .collect(Collectors.toSet());
+            this.patterns = endpoint.getPaths().stream()
+                    .map(PathPatternParser.defaultInstance::parse)
+                    .toList();
+            this.limiter = endpoint.getRate() > 0
+                    ? new TokenBucketRateLimiter<>(endpoint.getRate(), endpoint.getBurst(), maxClients)
+                    : null;
+            this.rateLimited = shedCounter(name, RATE_LIMITED, meterRegistry);
+            this.hashingBacklog = shedCounter(name, HASHING_BACKLOG, meterRegistry);
+            this.poolWait = shedCounter(name, POOL_WAIT, meterRegistry);
+            if (limiter != null) {
+                Gauge.builder("registration.admission.clients", limiter, TokenBucketRateLimiter::size)
+                        .description("Clients with a rate limit bucket")
+                        .tag("endpoint", name)
+                        .register(meterRegistry);
+            }
+        }
+
+        private static Counter shedCounter(String name, String reason, MeterRegistry meterRegistry) {
+            return Counter.builder("registration.admission.shed")
+                    .description("Requests refused by admission control")
+                    .tags("endpoint", name, "reason", reason)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.registration.web;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.spring6.expression.ThymeleafEvaluationContext;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Renders a Thymeleaf page whose rows arrive in chunks, flushing each chunk to the client
+ *
+ * The template is rendered once without rows and split at a marker that it prints where
+ * the rows belong. The part before the marker is sent first, then the row fragment is
+ * rendered and flushed for each chunk as it is produced, then the rest of the page. Only
+ * one chunk is ever held in memory.
+ */
+@Component
+public class ChunkedTemplateWriter {
+
+    /** Model attribute holding the marker the template must print where rows go */
+    public static final String MARKER_ATTRIBUTE = "rowsMarker";
+
+    private static final String MARKER = "<!--chunked-rows-->";
+
+    private final SpringTemplateEngine templateEngine;
+    private final ApplicationContext applicationContext;
+    private final ConversionService conversionService;
+    private final JakartaServletWebApplication webApplication;
+
+    public ChunkedTemplateWriter(SpringTemplateEngine templateEngine,
+                                 ApplicationContext applicationContext,
+                                 ConversionService mvcConversionService,
+                                 ServletContext servletContext) {
+        this.templateEngine = templateEngine;
+        this.applicationContext = applicationContext;
+        this.conversionService = mvcConversionService;
+        this.webApplication = JakartaServletWebApplication.buildApplication(servletContext);
+    }
+
+    /**
+     * Write the page
+     * @param template Template name
+     * @param model Attributes for the whole page
+     * @param rowsFragment Name of the fragment that renders one chunk of rows
+     * @param rowsAttribute Attribute the fragment iterates over
+     * @param chunks Row chunks, produced lazily
+     * @return Number of rows written
+     */
+    public long write(String template, Map<String, Object> model, String rowsFragment, String rowsAttribute,
+                      Iterator<? extends List<?>> chunks, HttpServletRequest request,
+                      HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.TEXT_HTML_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        WebContext context = new WebContext(webApplication.buildExchange(request, response), request.getLocale());
+        context.setVariables(model);
+        context.setVariable(ThymeleafEvaluationContext.THYMELEAF_EVALUATION_CONTEXT_CONTEXT_VARIABLE_NAME,
+                new ThymeleafEvaluationContext(applicationContext, conversionService));
+        context.setVariable(MARKER_ATTRIBUTE, MARKER);
+        context.setVariable(rowsAttribute, List.of());
+
+        String page = templateEngine.process(template, context);
+        int split = page.indexOf(MARKER);
+        if (split < 0) {
+            throw new IllegalStateException("Template " + template + " does not print the rows marker");
+        }
+
+        PrintWriter writer = response.getWriter();
+        writer.write(page, 0, split);
+        writer.flush();
+
+        long rows = 0;
+        Set<String> fragment = Set.of(rowsFragment);
+        while (chunks.hasNext()) {
+            List<?> chunk = chunks.next();
+            context.setVariable(rowsAttribute, chunk);
+            templateEngine.process(template, fragment, context, writer);
+            writer.flush();
+            rows += chunk.size();
+        }
+
+        writer.write(page, split + MARKER.length(), page.length() - split - MARKER.length());
+        writer.flush();
+        return rows;
+    }
+}
@@ -0,0 +1,45 @@
+package com.registration.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Identifies the client behind a request, for per-client rate limits and read-your-writes routing
+ * The API key header is used when one is configured and sent, otherwise the remote address
+ * (behind a proxy, set server.forward-headers-strategy so it is the client's).
+ */
+@Component
+public class ClientKeyResolver {
+
+    private final String keyHeader;
+
+    public ClientKeyResolver(@Value("${registration.client-key-header:}") String keyHeader) {
+        this.keyHeader = keyHeader;
+    }
+
+    /**
+     * @return Key of the client that sent the request
+     */
+    public String resolve(HttpServletRequest request) {
+        if (!keyHeader.isBlank()) {
+            String apiKey = request.getHeader(keyHeader);
+            if (apiKey != null && !apiKey.isBlank()) {
+                return "key:" + apiKey;
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    /**
+     * @return Key of the client whose request the current thread is serving, or null outside a request
+     */
+    public String current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servletAttributes
+                ? resolve(servletAttributes.getRequest()) : null;
+    }
+}
@@ -0,0 +1,288 @@
+package com.registration.web;
+
+import com.registration.util.ServerTiming;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Adds a Server-Timing header with per-phase durations to selected requests
+ *
+ * A request is timed when it carries the request header (any value but "0" or "false")
+ * or is picked by the sample rate. Nothing is buffered beyond the container's own buffer:
+ * the header is set just before the response commits, when the body is flushed or about
+ * to overflow the buffer, or when the request ends, so a page that fits the buffer includes
+ * its rendering. A response that commits before the request ends (a streamed listing or
+ * export, an event stream) also declares a Server-Timing trailer with the full timing,
+ * sent after the body where the protocol allows it. Untimed requests pass straight through.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    private final boolean enabled;
+    private final String requestHeader;
+    private final double sampleRate;
+
+    public ServerTimingFilter(@Value("${registration.server-timing.enabled:true}") boolean enabled,
+                              @Value("${registration.server-timing.request-header:X-Server-Timing}") String requestHeader,
+                              @Value("${registration.server-timing.sample-rate:0.0}") double sampleRate) {
+        this.enabled = enabled;
+        this.requestHeader = requestHeader;
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!isRequested(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        ServerTiming timing = new ServerTiming();
+        TimedResponse timedResponse = new TimedResponse(response, timing);
+        ServerTiming.bind(timing);
+        try {
+            filterChain.doFilter(request, timedResponse);
+        } finally {
+            ServerTiming.unbind();
+            if (!request.isAsyncStarted()) {
+                timedResponse.finish();
+            }
+        }
+    }
+
+    private boolean isRequested(HttpServletRequest request) {
+        String value = request.getHeader(requestHeader);
+        if (value != null) {
+            return !"0".equals(value) && !"false".equalsIgnoreCase(value);
+        }
+        return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    /**
+     * Sets the header whenever the response may be about to commit
+     * Output is counted against the buffer size, so the header is set before a write that can
+     * overflow it; characters count as three bytes, the most a UTF-8 encoded char needs.
+     */
+    private static final class TimedResponse extends HttpServletResponseWrapper {
+
+        private static final String TRAILER_HEADER = "Trailer";
+        private static final int MAX_BYTES_PER_CHAR = 3;
+
+        private final ServerTiming timing;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+        private long buffered;
+        private boolean finished;
+        private boolean trailerDeclared;
+
+        private TimedResponse(HttpServletResponse response, ServerTiming timing) {
+            super(response);
+            this.timing = timing;
+        }
+
+        private void finish() {
+            finished = true;
+            writeHeader();
+        }
+
+        private void writeHeader() {
+            if (isCommitted()) {
+                return;
+            }
+            setHeader(SERVER_TIMING_HEADER, timing.toHeaderValue(timing.elapsedNanos()));
+            if (!finished) {
+                declareTrailer();
+            }
+        }
+
+        /**
+         * The response is committing while the request still runs, so the header misses what
+         * follows; the trailer is rendered once the body is complete
+         */
+        private void declareTrailer() {
+            if (trailerDeclared) {
+                return;
+            }
+            trailerDeclared = true;
+            try {
+                setTrailerFields(() -> Map.of(SERVER_TIMING_HEADER, timing.toHeaderValue(timing.elapsedNanos())));
+                addHeader(TRAILER_HEADER, SERVER_TIMING_HEADER);
+            } catch (IllegalStateException e) {
+                // HTTP/1.0 has no trailers; the header alone has to do
+            }
+        }
+
+        private void beforeWrite(long bytes) {
+            buffered += bytes;
+            if (buffered >= getBufferSize()) {
+                writeHeader();
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new TimedOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                PrintWriter delegate = super.getWriter();
+                writer = new PrintWriter(new TimedWriter(delegate)) {
+                    @Override
+                    public boolean checkError() {
+                        return super.checkError() || delegate.checkError();
+                    }
+                };
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            buffered = 0;
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            buffered = 0;
+            trailerDeclared = false;
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeader();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeader();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeader();
+            super.sendRedirect(location);
+        }
+
+        private final class TimedOutputStream extends ServletOutputStream {
+
+            private final ServletOutputStream delegate;
+
+            private TimedOutputStream(ServletOutputStream delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                beforeWrite(1);
+                delegate.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                beforeWrite(len);
+                delegate.write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                writeHeader();
+                delegate.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                writeHeader();
+                delegate.close();
+            }
+
+            @Override
+            public boolean isReady() {
+                return delegate.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                delegate.setWriteListener(writeListener);
+            }
+        }
+
+        private final class TimedWriter extends Writer {
+
+            private final PrintWriter delegate;
+
+            private TimedWriter(PrintWriter delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(int c) {
+                beforeWrite(MAX_BYTES_PER_CHAR);
+                delegate.write(c);
+            }
+
+            @Override
+            public void write(char[] cbuf, int off, int len) {
+                beforeWrite((long) len * MAX_BYTES_PER_CHAR);
+                delegate.write(cbuf, off, len);
+            }
+
+            @Override
+            public void write(String str, int off, int len) {
+                beforeWrite((long) len * MAX_BYTES_PER_CHAR);
+                delegate.write(str, off, len);
+            }
+
+            @Override
+            public void flush() {
+                writeHeader();
+                delegate.flush();
+            }
+
+            @Override
+            public void close() {
+                writeHeader();
+                delegate.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.registration.web;
+
+import com.registration.util.ServerTiming;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+/**
+ * Adds view rendering time to the request's Server-Timing
+ * postHandle runs just before the view renders and afterCompletion just after it. The phase
+ * stays open in between, so a page that commits while rendering reports its render time so far.
+ */
+public class ServerTimingInterceptor implements HandlerInterceptor {
+
+    private static final String RENDER = "render";
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        if (modelAndView != null) {
+            ServerTiming.start(RENDER);
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ServerTiming.stop(RENDER);
+    }
+}
@@ -0,0 +1,114 @@
+package com.registration.web;
+
+import com.registration.codec.UserColumns;
+import com.registration.codec.UserColumnsReader;
+import com.registration.codec.UserColumnsWriter;
+import com.registration.dto.CursorPageDTO;
+import com.registration.dto.UserResponseDTO;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Reads and writes user pages and user lists in the UserColumns binary format
+ * Only CursorPageDTO&lt;UserResponseDTO&gt; and List&lt;UserResponseDTO&gt; are supported, and only
+ * when the client asks for the format, so JSON stays the default everywhere.
+ */
+public class UserColumnsHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public UserColumnsHttpMessageConverter() {
+        super(UserColumns.MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        // Element types are only known from the generic type
+        return false;
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        // Consulted with the raw class after canWrite(Type, ...) has checked the element type
+        return CursorPageDTO.class.equals(clazz) || List.class.isAssignableFrom(clazz)
+                ? getSupportedMediaTypes() : List.of();
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return isUserPage(type) != null && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return isUserPage(type) != null && canWrite(mediaType);
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        UserColumnsWriter writer = new UserColumnsWriter(outputMessage.getBody());
+        if (value instanceof CursorPageDTO<?> page) {
+            writer.writeAll(users(page.getItems()));
+            writer.finish(page.getLimit(), page.getNextCursor());
+        } else {
+            writer.writeAll(users((List<?>) value));
+            writer.finish();
+        }
+        writer.flush();
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        return readUsers(type, inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return readUsers(clazz, inputMessage);
+    }
+
+    private Object readUsers(Type type, HttpInputMessage inputMessage) throws IOException {
+        UserColumnsReader reader = new UserColumnsReader(inputMessage.getBody());
+        List<UserResponseDTO> users;
+        try {
+            users = reader.readAll();
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException("Invalid user columns body: " + e.getMessage(), e, inputMessage);
+        }
+        if (!Boolean.TRUE.equals(isUserPage(type))) {
+            return users;
+        }
+        return CursorPageDTO.<UserResponseDTO>builder()
+                .items(users)
+                .limit(reader.getLimit())
+                .nextCursor(reader.getNextCursor())
+                .hasMore(reader.getNextCursor() != null)
+                .build();
+    }
+
+    /**
+     * @return TRUE for a page of users, FALSE for a list of users, null for anything else
+     */
+    private static Boolean isUserPage(Type type) {
+        ResolvableType resolved = ResolvableType.forType(type);
+        Class<?> raw = resolved.resolve();
+        if (raw == null || !UserResponseDTO.class.equals(resolved.resolveGeneric(0))) {
+            return null;
+        }
+        if (CursorPageDTO.class.equals(raw)) {
+            return Boolean.TRUE;
+        }
+        return List.class.isAssignableFrom(raw) ? Boolean.FALSE : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<UserResponseDTO> users(List<?> items) {
+        return (List<UserResponseDTO>) items;
+    }
+}
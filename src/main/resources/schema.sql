@@ -5,12 +5,22 @@
 CREATE DATABASE IF NOT EXISTS registration_db;
 USE registration_db;
 
--- Drop table if exists (for fresh installation)
+-- Drop tables if exist (for fresh installation)
 DROP TABLE IF EXISTS users;
+DROP TABLE IF EXISTS users_seq;
+
+-- Id sequence for users (MySQL has no sequences, so Hibernate uses this single-row table).
+-- Ids are allocated in blocks of 50 so inserts can be sent as JDBC batches.
+-- When upgrading an existing database, start it above the current maximum id:
+--   INSERT INTO users_seq (next_val) SELECT COALESCE(MAX(user_id), 0) + 51 FROM users;
+CREATE TABLE users_seq (
+    next_val BIGINT
+);
+INSERT INTO users_seq (next_val) VALUES (101);
 
 -- Create users table
 CREATE TABLE users (
-    user_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT PRIMARY KEY,
     first_name VARCHAR(50) NOT NULL,
     last_name VARCHAR(50) NOT NULL,
     username VARCHAR(30) NOT NULL UNIQUE,
@@ -26,8 +36,10 @@ CREATE TABLE users (
     country VARCHAR(50),
     is_active BOOLEAN DEFAULT TRUE NOT NULL,
     email_verified BOOLEAN DEFAULT FALSE NOT NULL,
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    -- Microsecond precision: updated_at is the version behind the API's ETags, so two
+    -- changes within one second must not share a value
+    created_at TIMESTAMP(6) DEFAULT CURRENT_TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6),
     
     -- Constraints
     CONSTRAINT chk_gender CHECK (gender IN ('Male', 'Female', 'Other')),
@@ -43,17 +55,19 @@ CREATE INDEX idx_city ON users(city);
 CREATE INDEX idx_state ON users(state);
 CREATE INDEX idx_is_active ON users(is_active);
 CREATE INDEX idx_created_at ON users(created_at);
+-- Lets MAX(updated_at), the collection version, be read from the index
+CREATE INDEX idx_updated_at ON users(updated_at);
 
 -- Insert sample data (optional - for testing)
-INSERT INTO users (first_name, last_name, username, email, password, phone_number, 
+INSERT INTO users (user_id, first_name, last_name, username, email, password, phone_number, 
                    date_of_birth, gender, address, city, state, postal_code, country) 
 VALUES 
-('John', 'Doe', 'johndoe', 'john.doe@example.com', 
+(1, 'John', 'Doe', 'johndoe', 'john.doe@example.com', 
  '$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy', -- password: password123
  '9876543210', '1990-01-15', 'Male', '123 Main Street', 'New York', 
  'NY', '110001', 'USA'),
  
-('Jane', 'Smith', 'janesmith', 'jane.smith@example.com',
+(2, 'Jane', 'Smith', 'janesmith', 'jane.smith@example.com',
  '$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy', -- password: password123
  '9876543211', '1992-05-20', 'Female', '456 Oak Avenue', 'Los Angeles',
  'CA', '110002', 'USA');